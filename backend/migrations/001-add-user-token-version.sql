@@ -0,0 +1,3 @@
+-- Adds the version that authorization tokens are stamped with, so that tokens issued before a user's role changed
+-- can be refused. Existing users start at version 0, like new users do.
+ALTER TABLE `USER` ADD COLUMN TOKEN_VERSION INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Holds the refresh tokens that have been used or revoked, until they expire, so that they stay refused after the
+-- application restarts. EXPIRATION_TIME is in milliseconds since the epoch.
+CREATE TABLE REVOKED_TOKEN (
+    ID VARCHAR(255) NOT NULL,
+    EXPIRATION_TIME BIGINT NOT NULL,
+    PRIMARY KEY (ID)
+);
@@ -0,0 +1,53 @@
+package ca.sfu.cmpt373.alpha.vrcladder.ladder;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.util.BenchmarkLadders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures regenerating the ladder from a week of results, including building the Ladder from the list of teams.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class LadderBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int teamCount;
+
+    @Param({"LIST", "PRIMITIVE"})
+    private LadderEngine engine;
+
+    private List<Team> teams;
+    private List<MatchGroup> matchGroups;
+
+    @Setup
+    public void setUp() {
+        teams = BenchmarkLadders.generateLadder(teamCount);
+        matchGroups = BenchmarkLadders.generateMatchGroups(teams);
+        BenchmarkLadders.setResults(matchGroups, BenchmarkLadders.generateResults(matchGroups));
+    }
+
+    @Benchmark
+    public List<Team> updateLadder() {
+        return engine.updateLadder(teams, matchGroups);
+    }
+
+}
@@ -0,0 +1,65 @@
+package ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.Court;
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
+import ca.sfu.cmpt373.alpha.vrcladder.util.BenchmarkLadders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures grouping the attending teams of a ladder into MatchGroups, and scheduling those groups onto courts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MatchmakingBenchmark {
+
+    private static final List<PlayTime> TIME_SLOTS = Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int teamCount;
+
+    private List<Team> teams;
+    private List<MatchGroup> matchGroups;
+
+    @Setup
+    public void setUp() {
+        teams = BenchmarkLadders.generateLadder(teamCount);
+        matchGroups = BenchmarkLadders.generateMatchGroups(teams);
+    }
+
+    @Benchmark
+    public List<MatchGroup> generateMatchGroupings() {
+        return MatchGroupGenerator.generateMatchGroupings(teams);
+    }
+
+    @Benchmark
+    public List<Court> scheduleMatches() {
+        return MatchScheduler.scheduleMatches(matchGroups);
+    }
+
+    @Benchmark
+    public List<Court> scheduleMatchesOnCourts() {
+        //only just over half of the groups fit in each slot, so not every group can get its preferred slot
+        return MatchScheduler.scheduleMatches(matchGroups, matchGroups.size() / 2 + 1, TIME_SLOTS);
+    }
+
+}
@@ -0,0 +1,51 @@
+package ca.sfu.cmpt373.alpha.vrcladder.scores;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.util.BenchmarkLadders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording a week of results: setting the ranked teams on every MatchGroup's ScoreCard.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ScoreCardBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int teamCount;
+
+    private List<MatchGroup> matchGroups;
+    private List<List<Team>> results;
+
+    @Setup
+    public void setUp() {
+        List<Team> teams = BenchmarkLadders.generateLadder(teamCount);
+        matchGroups = BenchmarkLadders.generateMatchGroups(teams);
+        results = BenchmarkLadders.generateResults(matchGroups);
+    }
+
+    @Benchmark
+    public List<MatchGroup> setRankedTeams() {
+        BenchmarkLadders.setResults(matchGroups, results);
+        return matchGroups;
+    }
+
+}
@@ -0,0 +1,64 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.User;
+import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.crypto.MacProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long hashing a new password and logging in take for different passwordHashIterations settings,
+ * to pick a cost that keeps logins fast enough on the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "vrcpass1234";
+
+    @Param({"50000", "100000", "250000", "500000"})
+    private int hashIterations;
+
+    private SecurityManager securityManager;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        securityManager = new SecurityManager(SignatureAlgorithm.HS256, MacProvider.generateKey(), hashIterations, 1, 1);
+        user = MockUserGenerator.generatePlayer();
+        user.setPassword(securityManager.hashPassword(PASSWORD));
+    }
+
+    @TearDown
+    public void tearDown() {
+        securityManager.shutDown();
+    }
+
+    @Benchmark
+    public Password hashPassword() {
+        return securityManager.hashPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public String login() {
+        return securityManager.login(user, PASSWORD);
+    }
+
+}
@@ -0,0 +1,109 @@
+package ca.sfu.cmpt373.alpha.vrcladder.util;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceCard;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the synthetic ladders used as benchmark inputs.
+ * A fixed seed is used so that every run (and every engine) is measured against the same ladder.
+ */
+public class BenchmarkLadders {
+
+    public static final long SEED = 373;
+
+    private static final int ATTENDING_PERCENT = 80;
+    private static final int LATE_PERCENT = 10;
+    private static final int NO_SHOW_PERCENT = 5;
+    private static final int PERCENT = 100;
+
+    /**
+     * @return teamCount teams in ranked order, with a realistic mix of attending, absent, late and no-show teams
+     */
+    public static List<Team> generateLadder(int teamCount) {
+        MockUserGenerator.resetUserCount();
+        MockTeamGenerator.resetTeamCount();
+        Random random = new Random(SEED);
+
+        List<Team> teams = MockTeamGenerator.generateTeams(teamCount);
+        int attendingCount = 0;
+        for (Team team : teams) {
+            AttendanceCard attendanceCard = team.getAttendanceCard();
+            if (random.nextInt(PERCENT) < ATTENDING_PERCENT) {
+                attendanceCard.setPreferredPlayTime(random.nextBoolean() ? PlayTime.TIME_SLOT_A : PlayTime.TIME_SLOT_B);
+                attendingCount++;
+            }
+
+            int statusRoll = random.nextInt(PERCENT);
+            if (statusRoll < NO_SHOW_PERCENT) {
+                attendanceCard.setAttendanceStatus(AttendanceStatus.NO_SHOW);
+            } else if (statusRoll < NO_SHOW_PERCENT + LATE_PERCENT) {
+                attendanceCard.setAttendanceStatus(AttendanceStatus.LATE);
+            }
+        }
+
+        //1, 2 or 5 attending teams cannot be sorted into groups of 3 or 4, so have a few more teams attend
+        for (int i = 0; i < teams.size() && (attendingCount < MatchGroup.MIN_NUM_TEAMS || attendingCount == 5); i++) {
+            if (!teams.get(i).getAttendanceCard().isAttending()) {
+                teams.get(i).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+                attendingCount++;
+            }
+        }
+
+        return teams;
+    }
+
+    /**
+     * Splits the attending teams into groups of 3 or 4 without using the MatchGroupGenerator,
+     * so that setting up other benchmarks doesn't depend on its performance.
+     * The groups don't have their results set.
+     */
+    public static List<MatchGroup> generateMatchGroups(List<Team> ladder) {
+        List<Team> attendingTeams = new ArrayList<>();
+        for (Team team : ladder) {
+            if (team.getAttendanceCard().isAttending()) {
+                attendingTeams.add(team);
+            }
+        }
+
+        List<MatchGroup> matchGroups = new ArrayList<>();
+        int teamIndex = 0;
+        while (teamIndex < attendingTeams.size()) {
+            int remainingTeamCount = attendingTeams.size() - teamIndex;
+            int groupSize = (remainingTeamCount % MatchGroup.MIN_NUM_TEAMS == 0) ? MatchGroup.MIN_NUM_TEAMS : MatchGroup.MAX_NUM_TEAMS;
+            matchGroups.add(new MatchGroup(attendingTeams.subList(teamIndex, teamIndex + groupSize)));
+            teamIndex += groupSize;
+        }
+
+        return matchGroups;
+    }
+
+    /**
+     * @return a random finishing order for each MatchGroup's teams, in the same order as the MatchGroups
+     */
+    public static List<List<Team>> generateResults(List<MatchGroup> matchGroups) {
+        Random random = new Random(SEED);
+        List<List<Team>> results = new ArrayList<>();
+        for (MatchGroup matchGroup : matchGroups) {
+            List<Team> rankedTeams = new ArrayList<>(matchGroup.getTeams());
+            Collections.shuffle(rankedTeams, random);
+            results.add(rankedTeams);
+        }
+
+        return results;
+    }
+
+    public static void setResults(List<MatchGroup> matchGroups, List<List<Team>> results) {
+        for (int i = 0; i < matchGroups.size(); i++) {
+            matchGroups.get(i).getScoreCard().setRankedTeams(results.get(i));
+        }
+    }
+
+}
@@ -5,6 +5,8 @@ import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroupManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.LoginThrottle;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.RevokedTokenManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
 
 public class ApplicationManager {
@@ -15,21 +17,32 @@ public class ApplicationManager {
     private TeamManager teamManager;
     private MatchGroupManager matchGroupManager;
     private CourtManager courtManager;
+    private LoginThrottle loginThrottle;
+    private RevokedTokenManager revokedTokenManager;
 
     public ApplicationManager(SessionManager sessionManager, SecurityManager securityManager, UserManager userManager,
-        TeamManager teamManager, MatchGroupManager matchGroupManager, CourtManager courtManager) {
+        TeamManager teamManager, MatchGroupManager matchGroupManager, CourtManager courtManager,
+        LoginThrottle loginThrottle, RevokedTokenManager revokedTokenManager) {
         this.sessionManager = sessionManager;
         this.securityManager = securityManager;
         this.userManager = userManager;
         this.teamManager = teamManager;
         this.matchGroupManager = matchGroupManager;
         this.courtManager = courtManager;
+        this.loginThrottle = loginThrottle;
+        this.revokedTokenManager = revokedTokenManager;
     }
 
     public void shutDown() {
+        loginThrottle.shutDown();
+        securityManager.shutDown();
         sessionManager.shutDown();
     }
 
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
     public SecurityManager getSecurityManager() {
         return securityManager;
     }
@@ -50,4 +63,12 @@ public class ApplicationManager {
         return courtManager;
     }
 
+    public LoginThrottle getLoginThrottle() {
+        return loginThrottle;
+    }
+
+    public RevokedTokenManager getRevokedTokenManager() {
+        return revokedTokenManager;
+    }
+
 }
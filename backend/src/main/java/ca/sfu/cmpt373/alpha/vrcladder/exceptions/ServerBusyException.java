@@ -0,0 +1,23 @@
+package ca.sfu.cmpt373.alpha.vrcladder.exceptions;
+
+/**
+ * Thrown when work is refused because the workers that would do it are all busy and their queue is full.
+ * The work can be tried again after a short wait.
+ */
+public class ServerBusyException extends BaseException {
+
+    private final int retryAfterSeconds;
+
+    public ServerBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the number of seconds to wait before trying again
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,23 @@
+package ca.sfu.cmpt373.alpha.vrcladder.exceptions;
+
+/**
+ * Thrown when a login is refused because too many have been attempted recently for the same user or from the same
+ * address. Logins can be attempted again once the older attempts have fallen out of the window.
+ */
+public class TooManyAttemptsException extends BaseException {
+
+    private final int retryAfterSeconds;
+
+    public TooManyAttemptsException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the number of seconds to wait before trying again
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
@@ -5,30 +5,39 @@ import ca.sfu.cmpt373.alpha.vrcladder.teams.PlaceholderTeam;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 
 public class Ladder {
     private static final String ERROR_DUPLICATE_TEAM = "The Ladder already contains this team. The ladder may not hold duplicate elements";
     private static final Team PLACEHOLDER_TEAM = new PlaceholderTeam();
-    private static final int ABSENT_PENALTY = 2;
-    private static final int NO_SHOW_PENALTY = 10;
-    private static final int LATE_PENALTY = 4;
+    static final int ABSENT_PENALTY = 2;
+    static final int NO_SHOW_PENALTY = 10;
+    static final int LATE_PENALTY = 4;
 
     private List<Team> allTeams;
     private List<Team> attendingTeams;
     private List<Team> absentTeams;
 
+    //maps each team's id to its index in allTeams, so that ranks can be looked up without scanning the ladder.
+    //every write to allTeams must go through setTeamAt() so that this index stays in step with the list
+    private Map<GeneratedId, Integer> teamIndices;
+
     public Ladder(List<Team> teams) {
-        this.allTeams = new ArrayList<>();
+        this.allTeams = new ArrayList<>(teams.size());
+        this.teamIndices = new HashMap<>();
         for(Team team : teams) {
-            if(this.allTeams.contains(team)) {
+            if(this.teamIndices.containsKey(team.getId())) {
                 throw new IllegalStateException(ERROR_DUPLICATE_TEAM);
             }
+            this.teamIndices.put(team.getId(), this.allTeams.size());
             this.allTeams.add(team);
         }
     }
@@ -38,8 +47,8 @@ public class Ladder {
     }
 
     public int rankOfTeam(Team team) throws NoSuchElementException {
-        int teamIndex = this.allTeams.indexOf(team);
-        if(teamIndex == -1) {
+        Integer teamIndex = this.teamIndices.get(team.getId());
+        if(teamIndex == null) {
             throw new NoSuchElementException();
         }
         //return the actual ranking of the team, not the index
@@ -55,13 +64,19 @@ public class Ladder {
             int team1Index = rankOfTeam(team1) - 1;
             int team2Index = rankOfTeam(team2) - 1;
 
-            Collections.swap(this.allTeams, team1Index, team2Index);
+            this.setTeamAt(team1Index, team2);
+            this.setTeamAt(team2Index, team1);
         } catch(NoSuchElementException e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
         }
     }
 
+    private void setTeamAt(int teamIndex, Team team) {
+        this.allTeams.set(teamIndex, team);
+        this.teamIndices.put(team.getId(), teamIndex);
+    }
+
     public void updateLadder(List<MatchGroup> matchGroups) {
         for(MatchGroup matchGroup : matchGroups) {
             this.applyRankingsWithinMatchGroup(matchGroup);
@@ -96,13 +111,13 @@ public class Ladder {
         int attendingTeamIndex = 0;
         for(int teamIndex = 0;teamIndex < this.allTeams.size();teamIndex++) {
             if(this.absentTeams.get(teamIndex) != this.PLACEHOLDER_TEAM) {
-                this.allTeams.set(teamIndex, this.absentTeams.get(teamIndex));
+                this.setTeamAt(teamIndex, this.absentTeams.get(teamIndex));
             } else {
                 while(this.attendingTeams.get(attendingTeamIndex) == PLACEHOLDER_TEAM && attendingTeamIndex < this.attendingTeams.size()) {
                     attendingTeamIndex++;
                 }
                 assert(attendingTeamIndex < this.attendingTeams.size());
-                this.allTeams.set(teamIndex, this.attendingTeams.get(attendingTeamIndex));
+                this.setTeamAt(teamIndex, this.attendingTeams.get(attendingTeamIndex));
                 attendingTeamIndex++;
             }
         }
@@ -123,7 +138,7 @@ public class Ladder {
         List<Team> rankedTeams = matchGroup.getScoreCard().getRankedTeams();
         assert(matchGroup.getTeamCount() == rankIndices.size() && rankIndices.size() == rankedTeams.size());
         for (int i = 0;i < rankIndices.size();i++) {
-            this.allTeams.set(rankIndices.get(i), rankedTeams.get(i));
+            this.setTeamAt(rankIndices.get(i), rankedTeams.get(i));
         }
     }
 
@@ -140,33 +155,33 @@ public class Ladder {
     }
 
     private void applyNonAttendancePenalties() {
-        List<Boolean> penalizedTeamsStatus = new ArrayList<>(Collections.nCopies(this.absentTeams.size(), false));
+        int[] unpenalizedIndices = UnpenalizedIndices.create(this.absentTeams.size());
 
         for(int teamIndex = this.absentTeams.size() - 1;teamIndex > -1;teamIndex--) {
             //It is necessary to loop backwards, else the penalties will "cross over" each other. Hard to explain, just try doing it on a piece of paper and you'll see.
             //Additionally, if a penalty reaches the end of the list, the penalties directly above it will be applied differently
             Team team = this.absentTeams.get(teamIndex);
             if(team != this.PLACEHOLDER_TEAM) {
-                this.penalizeAbsentTeam(penalizedTeamsStatus, team);
+                this.penalizeAbsentTeam(unpenalizedIndices, teamIndex, team);
             }
         }
     }
 
     private void applyAttendingPenalties(AttendanceStatus attendanceStatus, int penalty) {
-        List<Boolean> penalizedTeamsStatus = new ArrayList<>(Collections.nCopies(this.attendingTeams.size(), false));
+        int[] unpenalizedIndices = UnpenalizedIndices.create(this.attendingTeams.size());
 
         for(int teamIndex = this.attendingTeams.size() - 1;teamIndex > -1;teamIndex--) {
             //It is necessary to loop backwards, else the penalties will "cross over" each other. Hard to explain, just try doing it on a piece of paper and you'll see.
             //Additionally, if a penalty reaches the end of the list, the penalties directly above it will be applied differently
             Team team = this.attendingTeams.get(teamIndex);
             if(team != this.PLACEHOLDER_TEAM && team.getAttendanceCard().getAttendanceStatus() == attendanceStatus) {
-                this.penalizeAttendingTeam(penalizedTeamsStatus, team, penalty);
+                this.penalizeAttendingTeam(unpenalizedIndices, teamIndex, team, penalty);
             }
         }
     }
 
-    private void penalizeAttendingTeam(List<Boolean> penalizedTeamsStatus, Team team, int penalty) {
-        int teamIndex = this.attendingTeams.indexOf(team);
+    //attendingTeams is only ever overwritten with placeholders, so the team is still at the index it was found at
+    private void penalizeAttendingTeam(int[] unpenalizedIndices, int teamIndex, Team team, int penalty) {
         this.attendingTeams.set(teamIndex, this.PLACEHOLDER_TEAM);
         teamIndex += penalty;
 
@@ -174,42 +189,42 @@ public class Ladder {
             teamIndex = this.absentTeams.size() - 1;
         }
 
-        assert(this.absentTeams.size() == penalizedTeamsStatus.size());
+        assert(this.absentTeams.size() == unpenalizedIndices.length);
 
-        while(penalizedTeamsStatus.get(teamIndex) || (this.absentTeams.get(teamIndex) != this.PLACEHOLDER_TEAM && this.absentTeams.get(teamIndex).getAttendanceCard().getAttendanceStatus() == AttendanceStatus.NO_SHOW)) {
-            teamIndex--;
+        teamIndex = UnpenalizedIndices.find(unpenalizedIndices, teamIndex);
+        while(this.absentTeams.get(teamIndex) != this.PLACEHOLDER_TEAM && this.absentTeams.get(teamIndex).getAttendanceCard().getAttendanceStatus() == AttendanceStatus.NO_SHOW) {
+            teamIndex = UnpenalizedIndices.find(unpenalizedIndices, teamIndex - 1);
         }
 
-        penalizedTeamsStatus.set(teamIndex, true);
+        UnpenalizedIndices.markPenalized(unpenalizedIndices, teamIndex);
 
         if(this.absentTeams.get(teamIndex) != this.PLACEHOLDER_TEAM) {
             int nextPlaceHolderIndex;
             for(nextPlaceHolderIndex = teamIndex - 1;this.absentTeams.get(nextPlaceHolderIndex) != this.PLACEHOLDER_TEAM && nextPlaceHolderIndex > -1;nextPlaceHolderIndex--);
             assert(nextPlaceHolderIndex > -1);
-            this.absentTeams.remove(nextPlaceHolderIndex);
-            this.absentTeams.add(teamIndex, team);
-        } else {
-            this.absentTeams.set(teamIndex, team);
+            //shift the teams between the placeholder and the new index up by one, instead of removing and re-adding
+            //which would shift every team below them as well
+            Collections.rotate(this.absentTeams.subList(nextPlaceHolderIndex, teamIndex + 1), -1);
         }
+        this.absentTeams.set(teamIndex, team);
     }
 
-    private void penalizeAbsentTeam(List<Boolean> penalizedTeamsStatus, Team team) {
-        int teamIndex = this.absentTeams.indexOf(team);
-        this.absentTeams.remove(team);
-        teamIndex += this.ABSENT_PENALTY;
+    //penalties below an absent team only ever move teams further down, so the team is still at the index it was found at,
+    //and it can only land between there and ABSENT_PENALTY spots below
+    private void penalizeAbsentTeam(int[] unpenalizedIndices, int teamIndex, Team team) {
+        int newTeamIndex = teamIndex + this.ABSENT_PENALTY;
 
-        if(teamIndex >= this.absentTeams.size()) {
-            teamIndex = this.absentTeams.size();
+        if(newTeamIndex >= this.absentTeams.size() - 1) {
+            newTeamIndex = this.absentTeams.size() - 1;
         }
 
-        assert(this.absentTeams.size() + 1 == penalizedTeamsStatus.size());
+        assert(this.absentTeams.size() == unpenalizedIndices.length);
 
-        while(penalizedTeamsStatus.get(teamIndex)) {
-            teamIndex--;
-        }
+        newTeamIndex = UnpenalizedIndices.find(unpenalizedIndices, newTeamIndex);
+        assert(newTeamIndex >= teamIndex);
 
-        penalizedTeamsStatus.set(teamIndex, true);
-        this.absentTeams.add(teamIndex, team);
+        UnpenalizedIndices.markPenalized(unpenalizedIndices, newTeamIndex);
+        Collections.rotate(this.absentTeams.subList(teamIndex, newTeamIndex + 1), -1);
     }
 
     @Override
@@ -0,0 +1,33 @@
+package ca.sfu.cmpt373.alpha.vrcladder.ladder;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+
+import java.util.List;
+
+/**
+ * The implementations that can be used to regenerate the ladder. Both produce the same rankings.
+ * LIST uses {@link Ladder}, and PRIMITIVE uses {@link PrimitiveLadder}, which avoids allocating objects while regenerating.
+ */
+public enum LadderEngine {
+    LIST,
+    PRIMITIVE;
+
+    public static final LadderEngine DEFAULT_ENGINE = LIST;
+
+    /**
+     * @param teams every team in the ladder, in ranked order
+     * @return the teams in their new ranked order
+     */
+    public List<Team> updateLadder(List<Team> teams, List<MatchGroup> matchGroups) {
+        if (this == PRIMITIVE) {
+            PrimitiveLadder ladder = new PrimitiveLadder(teams);
+            ladder.updateLadder(matchGroups);
+            return ladder.getLadder();
+        } else {
+            Ladder ladder = new Ladder(teams);
+            ladder.updateLadder(matchGroups);
+            return ladder.getLadder();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package ca.sfu.cmpt373.alpha.vrcladder.ladder;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceCard;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An alternative to {@link Ladder} that produces exactly the same rankings, but works on int handles
+ * (each team's index in the list it was created with) instead of Team objects.
+ * Attendance is kept in bitsets, and empty spots in the attending/absent ladders are marked with NO_TEAM
+ * instead of a PlaceholderTeam. All the working arrays are allocated up front, so updating the ladder
+ * doesn't allocate any objects.
+ */
+public class PrimitiveLadder {
+    private static final String ERROR_DUPLICATE_TEAM = "The Ladder already contains this team. The ladder may not hold duplicate elements";
+    private static final String ERROR_TEAM_NOT_ON_LADDER = "A match group contains a team that is not on the ladder: %s";
+    private static final int NO_TEAM = -1;
+
+    private final Team[] teams;
+    private final Map<GeneratedId, Integer> teamHandles;
+
+    //ladder holds the handle of the team at each index, and teamIndices holds the index of each handle
+    private final int[] ladder;
+    private final int[] teamIndices;
+
+    private final int[] attendingTeams;
+    private final int[] absentTeams;
+    private final int[] unpenalizedIndices;
+    private final int[] rankIndices;
+
+    private final BitSet attendingStatus;
+    private final BitSet noShowStatus;
+    private final BitSet lateStatus;
+
+    public PrimitiveLadder(List<Team> teams) {
+        int teamCount = teams.size();
+        this.teams = new Team[teamCount];
+        this.teamHandles = new HashMap<>();
+        this.ladder = new int[teamCount];
+        this.teamIndices = new int[teamCount];
+        for(int handle = 0;handle < teamCount;handle++) {
+            Team team = teams.get(handle);
+            if(this.teamHandles.containsKey(team.getId())) {
+                throw new IllegalStateException(ERROR_DUPLICATE_TEAM);
+            }
+            this.teams[handle] = team;
+            this.teamHandles.put(team.getId(), handle);
+            this.ladder[handle] = handle;
+            this.teamIndices[handle] = handle;
+        }
+
+        this.attendingTeams = new int[teamCount];
+        this.absentTeams = new int[teamCount];
+        this.unpenalizedIndices = new int[teamCount];
+        this.rankIndices = new int[MatchGroup.MAX_NUM_TEAMS];
+        this.attendingStatus = new BitSet(teamCount);
+        this.noShowStatus = new BitSet(teamCount);
+        this.lateStatus = new BitSet(teamCount);
+    }
+
+    public List<Team> getLadder() {
+        List<Team> rankedTeams = new ArrayList<>(this.ladder.length);
+        for(int handle : this.ladder) {
+            rankedTeams.add(this.teams[handle]);
+        }
+        return rankedTeams;
+    }
+
+    public int rankOfTeam(Team team) throws NoSuchElementException {
+        //return the actual ranking of the team, not the index
+        return this.teamIndices[handleOfTeam(team)] + 1;
+    }
+
+    public int getTeamCount() {
+        return this.ladder.length;
+    }
+
+    public void updateLadder(List<MatchGroup> matchGroups) {
+        this.readAttendance();
+
+        for(int i = 0;i < matchGroups.size();i++) {
+            this.applyRankingsWithinMatchGroup(matchGroups.get(i));
+        }
+        this.swapTeamsBetweenMatchGroups(matchGroups);
+
+        this.splitLadder();
+
+        this.applyNonAttendancePenalties();
+        this.applyAttendingPenalties(this.noShowStatus, Ladder.NO_SHOW_PENALTY);
+        this.applyAttendingPenalties(this.lateStatus, Ladder.LATE_PENALTY);
+
+        this.mergeLadder();
+    }
+
+    private int handleOfTeam(Team team) throws NoSuchElementException {
+        Integer handle = this.teamHandles.get(team.getId());
+        if(handle == null) {
+            throw new NoSuchElementException();
+        }
+        return handle;
+    }
+
+    /**
+     * Finds the handle of a team taken from a match group, which must be on the ladder for the ladder to be updated
+     */
+    private int handleOfGroupTeam(Team team) {
+        try {
+            return handleOfTeam(team);
+        } catch(NoSuchElementException e) {
+            throw new IllegalStateException(String.format(ERROR_TEAM_NOT_ON_LADDER, team.getId()), e);
+        }
+    }
+
+    private void setTeamAt(int teamIndex, int handle) {
+        this.ladder[teamIndex] = handle;
+        this.teamIndices[handle] = teamIndex;
+    }
+
+    private void readAttendance() {
+        this.attendingStatus.clear();
+        this.noShowStatus.clear();
+        this.lateStatus.clear();
+
+        for(int handle = 0;handle < this.teams.length;handle++) {
+            AttendanceCard attendanceCard = this.teams[handle].getAttendanceCard();
+            if(attendanceCard.isAttending()) {
+                this.attendingStatus.set(handle);
+            }
+            if(attendanceCard.getAttendanceStatus() == AttendanceStatus.NO_SHOW) {
+                this.noShowStatus.set(handle);
+            } else if(attendanceCard.getAttendanceStatus() == AttendanceStatus.LATE) {
+                this.lateStatus.set(handle);
+            }
+        }
+    }
+
+    private void applyRankingsWithinMatchGroup(MatchGroup matchGroup) {
+        //find the ladder indices for 1st, 2nd, 3rd, 4th... positions
+        //these need to be found before, because we will be overwriting teams below
+        List<Team> groupTeams = matchGroup.getTeams();
+        for(int i = 0;i < groupTeams.size();i++) {
+            this.rankIndices[i] = this.teamIndices[handleOfGroupTeam(groupTeams.get(i))];
+        }
+
+        //overwrite the team in each position with the teams specified in the ScoreCard
+        List<Team> rankedTeams = matchGroup.getScoreCard().getRankedTeams();
+        assert(groupTeams.size() == rankedTeams.size());
+        for(int i = 0;i < rankedTeams.size();i++) {
+            this.setTeamAt(this.rankIndices[i], handleOfGroupTeam(rankedTeams.get(i)));
+        }
+    }
+
+    private void swapTeamsBetweenMatchGroups(List<MatchGroup> matchGroups) {
+        for(int i = 0;i < matchGroups.size() - 1;i++) {
+            List<Team> rankedMatchGroupTeams1 = matchGroups.get(i).getScoreCard().getRankedTeams();
+            List<Team> rankedMatchGroupTeams2 = matchGroups.get(i + 1).getScoreCard().getRankedTeams();
+
+            int lastPlaceHandleInMatchGroup1 = handleOfGroupTeam(rankedMatchGroupTeams1.get(rankedMatchGroupTeams1.size() - 1));
+            int firstPlaceHandleInMatchGroup2 = handleOfGroupTeam(rankedMatchGroupTeams2.get(0));
+
+            int team1Index = this.teamIndices[lastPlaceHandleInMatchGroup1];
+            int team2Index = this.teamIndices[firstPlaceHandleInMatchGroup2];
+            this.setTeamAt(team1Index, firstPlaceHandleInMatchGroup2);
+            this.setTeamAt(team2Index, lastPlaceHandleInMatchGroup1);
+        }
+    }
+
+    private void splitLadder() {
+        for(int teamIndex = 0;teamIndex < this.ladder.length;teamIndex++) {
+            int handle = this.ladder[teamIndex];
+            if(this.attendingStatus.get(handle)) {
+                this.attendingTeams[teamIndex] = handle;
+                this.absentTeams[teamIndex] = NO_TEAM;
+            } else {
+                this.attendingTeams[teamIndex] = NO_TEAM;
+                this.absentTeams[teamIndex] = handle;
+            }
+        }
+    }
+
+    private void mergeLadder() {
+        int attendingTeamIndex = 0;
+        for(int teamIndex = 0;teamIndex < this.ladder.length;teamIndex++) {
+            if(this.absentTeams[teamIndex] != NO_TEAM) {
+                this.setTeamAt(teamIndex, this.absentTeams[teamIndex]);
+            } else {
+                while(this.attendingTeams[attendingTeamIndex] == NO_TEAM) {
+                    attendingTeamIndex++;
+                }
+                this.setTeamAt(teamIndex, this.attendingTeams[attendingTeamIndex]);
+                attendingTeamIndex++;
+            }
+        }
+    }
+
+    private void applyNonAttendancePenalties() {
+        UnpenalizedIndices.reset(this.unpenalizedIndices);
+
+        //loops backwards for the same reasons as Ladder's penalties
+        for(int teamIndex = this.absentTeams.length - 1;teamIndex > -1;teamIndex--) {
+            int handle = this.absentTeams[teamIndex];
+            if(handle != NO_TEAM) {
+                this.penalizeAbsentTeam(teamIndex, handle);
+            }
+        }
+    }
+
+    private void applyAttendingPenalties(BitSet attendanceStatus, int penalty) {
+        UnpenalizedIndices.reset(this.unpenalizedIndices);
+
+        for(int teamIndex = this.attendingTeams.length - 1;teamIndex > -1;teamIndex--) {
+            int handle = this.attendingTeams[teamIndex];
+            if(handle != NO_TEAM && attendanceStatus.get(handle)) {
+                this.penalizeAttendingTeam(teamIndex, handle, penalty);
+            }
+        }
+    }
+
+    private void penalizeAttendingTeam(int teamIndex, int handle, int penalty) {
+        this.attendingTeams[teamIndex] = NO_TEAM;
+        int newTeamIndex = Math.min(teamIndex + penalty, this.absentTeams.length - 1);
+
+        newTeamIndex = UnpenalizedIndices.find(this.unpenalizedIndices, newTeamIndex);
+        while(this.absentTeams[newTeamIndex] != NO_TEAM && this.noShowStatus.get(this.absentTeams[newTeamIndex])) {
+            newTeamIndex = UnpenalizedIndices.find(this.unpenalizedIndices, newTeamIndex - 1);
+        }
+
+        UnpenalizedIndices.markPenalized(this.unpenalizedIndices, newTeamIndex);
+
+        if(this.absentTeams[newTeamIndex] != NO_TEAM) {
+            int nextEmptyIndex = newTeamIndex - 1;
+            while(this.absentTeams[nextEmptyIndex] != NO_TEAM) {
+                nextEmptyIndex--;
+            }
+            shiftUp(this.absentTeams, nextEmptyIndex, newTeamIndex);
+        }
+        this.absentTeams[newTeamIndex] = handle;
+    }
+
+    private void penalizeAbsentTeam(int teamIndex, int handle) {
+        int newTeamIndex = Math.min(teamIndex + Ladder.ABSENT_PENALTY, this.absentTeams.length - 1);
+
+        newTeamIndex = UnpenalizedIndices.find(this.unpenalizedIndices, newTeamIndex);
+        assert(newTeamIndex >= teamIndex);
+
+        UnpenalizedIndices.markPenalized(this.unpenalizedIndices, newTeamIndex);
+        shiftUp(this.absentTeams, teamIndex, newTeamIndex);
+        this.absentTeams[newTeamIndex] = handle;
+    }
+
+    /**
+     * Moves the handles after fromIndex, up to and including toIndex, up by one spot. Whatever was at fromIndex is overwritten.
+     */
+    private static void shiftUp(int[] handles, int fromIndex, int toIndex) {
+        System.arraycopy(handles, fromIndex + 1, handles, fromIndex, toIndex - fromIndex);
+    }
+}
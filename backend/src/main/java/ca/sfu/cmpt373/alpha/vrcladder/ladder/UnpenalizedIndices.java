@@ -0,0 +1,42 @@
+package ca.sfu.cmpt373.alpha.vrcladder.ladder;
+
+/**
+ * Helpers for the array used to find where penalized teams can be placed. Each index points to itself
+ * until a penalized team is placed there, and afterwards points to the index above it.
+ * Paths are shortened as they are followed, so runs of penalized teams aren't walked over more than once.
+ */
+class UnpenalizedIndices {
+
+    static int[] create(int size) {
+        int[] unpenalizedIndices = new int[size];
+        reset(unpenalizedIndices);
+        return unpenalizedIndices;
+    }
+
+    static void reset(int[] unpenalizedIndices) {
+        for(int i = 0;i < unpenalizedIndices.length;i++) {
+            unpenalizedIndices[i] = i;
+        }
+    }
+
+    /**
+     * @return the closest index at or above teamIndex that no penalized team has been placed at yet, or -1 if there is none.
+     */
+    static int find(int[] unpenalizedIndices, int teamIndex) {
+        int unpenalizedIndex = teamIndex;
+        while(unpenalizedIndex > -1 && unpenalizedIndices[unpenalizedIndex] != unpenalizedIndex) {
+            unpenalizedIndex = unpenalizedIndices[unpenalizedIndex];
+        }
+
+        while(teamIndex > unpenalizedIndex) {
+            int nextIndex = unpenalizedIndices[teamIndex];
+            unpenalizedIndices[teamIndex] = unpenalizedIndex;
+            teamIndex = nextIndex;
+        }
+        return unpenalizedIndex;
+    }
+
+    static void markPenalized(int[] unpenalizedIndices, int teamIndex) {
+        unpenalizedIndices[teamIndex] = teamIndex - 1;
+    }
+}
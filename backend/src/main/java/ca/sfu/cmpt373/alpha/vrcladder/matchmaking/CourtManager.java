@@ -2,7 +2,6 @@ package ca.sfu.cmpt373.alpha.vrcladder.matchmaking;
 
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.DatabaseManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
-import org.hibernate.Criteria;
 import org.hibernate.Session;
 
 import java.util.List;
@@ -22,22 +21,27 @@ public class CourtManager extends DatabaseManager<Court> {
         return super.update(court);
     }
 
+    /**
+     * Loads the whole schedule, with every scheduled MatchGroup and its teams and players, in a fixed number
+     * of statements. See MatchGroupManager's getAll() for how the collections are fetched.
+     */
     @Override
     public List<Court> getAll() {
-        //due to EAGER FetchType, duplicates are returned when getting all Courts
-        //see MatchGroupManager's getAll() for an explanation of why this behaviour happens
         Session session = sessionManager.getSession();
         List<Court> entityList = session
                 .createCriteria(Court.class)
-                .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
                 .list();
         session.close();
 
         return entityList;
     }
 
+    /**
+     * Deletes every Court and its schedule, leaving the scheduled MatchGroups in place
+     * @return the number of Courts deleted
+     */
     @Override
-    public List<Court> deleteAll() {
+    public int deleteAll() {
         return super.deleteAll();
     }
 }
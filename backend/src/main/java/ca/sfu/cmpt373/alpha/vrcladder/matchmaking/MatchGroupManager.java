@@ -2,10 +2,13 @@ package ca.sfu.cmpt373.alpha.vrcladder.matchmaking;
 
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.DatabaseManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
+import ca.sfu.cmpt373.alpha.vrcladder.scores.ScoreCard;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
-import org.hibernate.Criteria;
+import ca.sfu.cmpt373.alpha.vrcladder.util.CriterionConstants;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.criterion.Restrictions;
+import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.IdType;
 
 import javax.persistence.EntityNotFoundException;
@@ -20,6 +23,15 @@ public class MatchGroupManager extends DatabaseManager<MatchGroup> {
 
     private static final String ERROR_NO_MATCH_GROUP = "There was no match group found for the given id";
 
+    private static final String PARAM_AFTER_LADDER_POSITION = "afterLadderPosition";
+    private static final String QUERY_PAGE_IDS = "select matchGroup.id from MatchGroup matchGroup"
+            + " join matchGroup.teams team"
+            + " group by matchGroup.id"
+            + " having max(team.ladderPosition.ladderPosition) > :" + PARAM_AFTER_LADDER_POSITION
+            + " order by max(team.ladderPosition.ladderPosition)";
+    private static final int NO_LADDER_POSITION = 0;
+    private static final String QUERY_DETACH_SCORE_CARDS = "update ScoreCard set matchGroup = null";
+
     public MatchGroupManager(SessionManager sessionManager) {
         super(MATCH_CLASS_TYPE, sessionManager);
     }
@@ -47,6 +59,32 @@ public class MatchGroupManager extends DatabaseManager<MatchGroup> {
         return create(matchGroup);
     }
 
+    /**
+     * Saves the courts along with all of their scheduled MatchGroups and ScoreCards in a single transaction,
+     * so the inserts are sent to the database in JDBC batches instead of one transaction per entity.
+     * Nothing is saved if any of the inserts fail.
+     */
+    public List<Court> createAll(List<Court> courts) {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            for (Court court : courts) {
+                for (MatchGroup matchGroup : court.getScheduledMatches().values()) {
+                    session.save(matchGroup);
+                }
+                session.save(court);
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+
+        return courts;
+    }
+
     public MatchGroup updateScoreCard(MatchGroup matchGroup) {
         Session session = sessionManager.getSession();
         Transaction transaction = session.beginTransaction();
@@ -95,19 +133,17 @@ public class MatchGroupManager extends DatabaseManager<MatchGroup> {
         return results;
     }
 
+    /**
+     * Loads every MatchGroup along with its teams, players, and ScoreCard in a fixed number of statements,
+     * however many groups there are. The teams and ranked teams of all the groups are each fetched with one
+     * subselect (see the collection mappings), instead of being joined onto the groups, which would return
+     * a row for every combination of team and ranked team.
+     */
     @Override
     public List<MatchGroup> getAll() {
-        //Criteria.DISTINCT_ROOT_ENTITY is needed so duplicates of results aren't returned
-        //FETCHTYPE.EAGER results in duplicate MatchGroups being returned, because of the way the data
-        //is represented in sql tables. For instance, a table representing one MatchGroup may have several
-        //rows for each MatchGroup since it has to store different tuples representing the relationship between
-        //a MatchGroup and its teams. Ex: (matchGroup1Id, team1Id), (matchGroup1Id, team2Id), (matchGroup1Id, team3Id)
-        //are all distinct tuples/rows in the sql table, so by default, listing all the items will return three instances
-        //of MatchGroup1. We have to tell Hibernate to just give us one instance of matchGroup1, using DISTINCT_ROOT_ENTITY
         Session session = sessionManager.getSession();
         List<MatchGroup> entityList = session
                 .createCriteria(MatchGroup.class)
-                .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
                 .list();
         session.close();
 
@@ -117,8 +153,58 @@ public class MatchGroupManager extends DatabaseManager<MatchGroup> {
         return entityList;
     }
 
+    /**
+     * Fetches one page of MatchGroups, in the same order as getAll().
+     * Groups are ordered by the ladder position of their lowest ranked team, which is unique to each group since
+     * no team plays in two groups, so that position is used as the cursor for the next page.
+     * The ids in the page are found first, so the subselects that load the groups' teams only cover this page.
+     * @param afterLadderPosition the page starts with the first group whose lowest ranked team is ranked below
+     *                            this position, or at the first group if null
+     * @param pageSize the most MatchGroups to return
+     */
+    public List<MatchGroup> getPage(Integer afterLadderPosition, int pageSize) {
+        Session session = sessionManager.getSession();
+        List<GeneratedId> matchGroupIds = session.createQuery(QUERY_PAGE_IDS)
+                .setParameter(PARAM_AFTER_LADDER_POSITION, afterLadderPosition == null ? NO_LADDER_POSITION : afterLadderPosition)
+                .setMaxResults(pageSize)
+                .list();
+
+        List<MatchGroup> entityList = new ArrayList<>();
+        if (!matchGroupIds.isEmpty()) {
+            entityList = session.createCriteria(MatchGroup.class)
+                    .add(Restrictions.in(CriterionConstants.MATCH_GROUP_ID_PROPERTY, matchGroupIds))
+                    .list();
+        }
+        session.close();
+
+        Collections.sort(entityList);
+
+        return entityList;
+    }
+
+    /**
+     * Deletes every MatchGroup along with its ScoreCard in a few bulk statements, without loading any of them.
+     * MatchGroups and ScoreCards reference each other, so the ScoreCards' references are cleared first.
+     * Any Courts the groups are scheduled on must be deleted before this.
+     * @return the number of MatchGroups deleted
+     */
     @Override
-    public List<MatchGroup> deleteAll() {
-        return super.deleteAll();
+    public int deleteAll() {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        int deletedCount;
+        try {
+            session.createQuery(QUERY_DETACH_SCORE_CARDS).executeUpdate();
+            deletedCount = session.createQuery(buildDeleteAllQuery(MatchGroup.class)).executeUpdate();
+            session.createQuery(buildDeleteAllQuery(ScoreCard.class)).executeUpdate();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+
+        return deletedCount;
     }
 }
\ No newline at end of file
@@ -4,7 +4,13 @@ import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MatchMakingException;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A class for generating the groups of teams that will play matches against each other each week
@@ -19,37 +25,39 @@ public class MatchGroupGenerator {
      */
     public static List<MatchGroup> generateMatchGroupings(List<Team> teams) {
         List<MatchGroup> results = new ArrayList<>();
-        List<Team> attendingTeams = getAttendingTeams(teams);
-        List<Team> teamsToGroup = new ArrayList<>();
-
-        int deductedTeamsCount = 0;
-        int teamsTotalCount = attendingTeams.size();
-        int remainingTeamsCount = teamsTotalCount - deductedTeamsCount;
-
-        while(remainingTeamsCount >= MatchGroup.MIN_NUM_TEAMS) {
-            int currentGroupSize = decideCurrentTeam(remainingTeamsCount);
-            createGroup(currentGroupSize, deductedTeamsCount, teams, teamsToGroup);
-            deductedTeamsCount = deductedTeamsCount + currentGroupSize;
-            results.add(new MatchGroup(teamsToGroup));
-            teamsToGroup.clear();
-            remainingTeamsCount = teamsTotalCount - deductedTeamsCount;
-        }
+        matchGroupIterator(teams).forEachRemaining(results::add);
+        return results;
+    }
 
-        if(attendingTeams.size() > deductedTeamsCount){
-            throw new MatchMakingException(ERROR_MESSAGE);
-        }
+    /**
+     * preconditions: teams are assumed to be in sorted ranked order, and are not modified while iterating
+     * Generates the same groups as generateMatchGroupings(), one at a time, in a single pass over the ladder
+     * @throws MatchMakingException if teams cannot be sorted into groups. This is thrown before any groups are generated
+     */
+    public static Iterator<MatchGroup> matchGroupIterator(List<Team> teams) {
+        return new MatchGroupIterator(teams);
+    }
 
-        return results;
+    /**
+     * @see #matchGroupIterator(List)
+     */
+    public static Stream<MatchGroup> streamMatchGroupings(List<Team> teams) {
+        MatchGroupIterator matchGroupIterator = new MatchGroupIterator(teams);
+        Spliterator<MatchGroup> spliterator = Spliterators.spliterator(
+                matchGroupIterator,
+                matchGroupIterator.getGroupCount(),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
     }
 
-    private static List<Team> getAttendingTeams (List<Team> teams) {
-        List<Team> attendingTeams = new ArrayList<>();
+    private static int countAttendingTeams(List<Team> teams) {
+        int attendingTeamsCount = 0;
         for (Team team : teams) {
             if (team.getAttendanceCard().isAttending()) {
-                attendingTeams.add(team);
+                attendingTeamsCount++;
             }
         }
-        return attendingTeams;
+        return attendingTeamsCount;
     }
 
     private static int decideCurrentTeam(int remainingTeams) {
@@ -60,14 +68,61 @@ public class MatchGroupGenerator {
         }
     }
 
-    private static void createGroup(int currentGroupSize, int deductedTeams, List<Team> teams, List<Team> teamsToGroup){
-        List<Team> attendingTeams = getAttendingTeams(teams);
-        for(int subCounter = 0; subCounter < currentGroupSize; subCounter++){
-            int teamIndex = (subCounter + deductedTeams);
-            if(teamIndex < attendingTeams.size()){
-                Team currentTeam = attendingTeams.get(teamIndex);
-                teamsToGroup.add(currentTeam);
+    /**
+     * Walks the ladder once, taking the next 3 or 4 attending teams for each group.
+     * Group sizes only depend on how many attending teams are left, so they are all known as soon as the
+     * attending teams have been counted.
+     */
+    private static class MatchGroupIterator implements Iterator<MatchGroup> {
+        private final Iterator<Team> ladderIterator;
+        private final int groupCount;
+        private int remainingTeamsCount;
+
+        MatchGroupIterator(List<Team> teams) {
+            int teamsTotalCount = countAttendingTeams(teams);
+
+            int groupCount = 0;
+            int remainingTeamsCount = teamsTotalCount;
+            while(remainingTeamsCount >= MatchGroup.MIN_NUM_TEAMS) {
+                remainingTeamsCount -= decideCurrentTeam(remainingTeamsCount);
+                groupCount++;
+            }
+
+            if(remainingTeamsCount > 0){
+                throw new MatchMakingException(ERROR_MESSAGE);
             }
+
+            this.ladderIterator = teams.iterator();
+            this.groupCount = groupCount;
+            this.remainingTeamsCount = teamsTotalCount;
+        }
+
+        int getGroupCount() {
+            return groupCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remainingTeamsCount >= MatchGroup.MIN_NUM_TEAMS;
+        }
+
+        @Override
+        public MatchGroup next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int currentGroupSize = decideCurrentTeam(remainingTeamsCount);
+            List<Team> teamsToGroup = new ArrayList<>(currentGroupSize);
+            while(teamsToGroup.size() < currentGroupSize) {
+                Team currentTeam = ladderIterator.next();
+                if (currentTeam.getAttendanceCard().isAttending()) {
+                    teamsToGroup.add(currentTeam);
+                }
+            }
+            remainingTeamsCount -= currentGroupSize;
+
+            return new MatchGroup(teamsToGroup);
         }
     }
 }
@@ -1,12 +1,19 @@
 package ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic;
 
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MatchMakingException;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.PlayTimeException;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.Court;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
 
 public class MatchScheduler {
     /**
@@ -15,6 +22,11 @@ public class MatchScheduler {
 
     public static final int MAX_SINGLE_TIME_SLOT_SIZE = 12;
 
+    private static final String ERROR_NOT_ENOUGH_COURTS = "There are not enough courts and time slots to schedule %d match groups";
+
+    private static final int NO_SLOT = -1;
+    private static final int NO_GROUP = -1;
+
     public static List<Court> scheduleMatches(List<MatchGroup> matchGroups) {
         // Schedule matches into the courts.
         List<Court> courts = new ArrayList<>();
@@ -29,34 +41,194 @@ public class MatchScheduler {
                 courts.get(index).scheduleMatch(matchGroups.get(index), PlayTime.TIME_SLOT_A);
             }
         } else {
-            List<MatchGroup> slotAGroups = new ArrayList<>();
-            List<MatchGroup> slotBGroups = new ArrayList<>();
-
-            for(MatchGroup matchGroup : matchGroups) {
-                if(matchGroup.getPreferredGroupPlayTime() == PlayTime.TIME_SLOT_A) {
-                    slotAGroups.add(matchGroup);
-                } else {
-                    slotBGroups.add(matchGroup);
+            //split the groups as evenly as possible between the two time slots,
+            //giving as many teams as possible the time they asked for
+            List<PlayTime> timeSlots = Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B);
+            int slotCapacity = (matchGroups.size() + 1) / timeSlots.size();
+            int[] groupSlots = assignTimeSlots(matchGroups, timeSlots, slotCapacity);
+
+            int courtIndex = 0;
+            for(int slot = 0;slot < timeSlots.size();slot++) {
+                for(int i = 0;i < matchGroups.size();i++) {
+                    if(groupSlots[i] == slot) {
+                        courts.get(courtIndex).scheduleMatch(matchGroups.get(i), timeSlots.get(slot));
+                        courtIndex++;
+                    }
                 }
             }
+        }
+
+        return courts;
+    }
 
-            while(slotAGroups.size() - slotBGroups.size() > 1) {
-                slotBGroups.add(slotAGroups.remove(slotAGroups.size() - 1));
+    /**
+     * Schedules the match groups onto the given number of courts, with each court holding one match group per time slot.
+     * Groups are assigned to time slots so that as many teams as possible play at their preferred time,
+     * and ties are broken in favour of each group's {@link MatchGroup#getPreferredGroupPlayTime()}.
+     * Within a time slot, groups are placed on courts in the order they were given.
+     * @return only the courts that have at least one match scheduled
+     * @throws MatchMakingException if there are more match groups than courts in all the time slots
+     * @throws PlayTimeException if one of the time slots is unplayable
+     */
+    public static List<Court> scheduleMatches(List<MatchGroup> matchGroups, int courtCount, List<PlayTime> timeSlots) {
+        List<PlayTime> distinctTimeSlots = new ArrayList<>(new LinkedHashSet<>(timeSlots));
+        for (PlayTime timeSlot : distinctTimeSlots) {
+            timeSlot.checkPlayablePlayTime();
+        }
+
+        int[] groupSlots = assignTimeSlots(matchGroups, distinctTimeSlots, courtCount);
+
+        List<Court> courts = new ArrayList<>();
+        int[] nextCourtIndices = new int[distinctTimeSlots.size()];
+        for(int i = 0;i < matchGroups.size();i++) {
+            int slot = groupSlots[i];
+            int courtIndex = nextCourtIndices[slot]++;
+            if(courtIndex == courts.size()) {
+                courts.add(new Court());
             }
+            courts.get(courtIndex).scheduleMatch(matchGroups.get(i), distinctTimeSlots.get(slot));
+        }
+
+        return courts;
+    }
+
+    /**
+     * Finds the assignment of groups to time slots with the highest total preference score, where no time slot holds
+     * more than slotCapacity groups.
+     * This is solved exactly as a min cost assignment: groups are added one at a time, and each one is placed by
+     * following the cheapest chain of moves (put the group into a slot, bump another group from that slot into
+     * the next one, and so on) that ends at a slot with room. There are only a handful of time slots, so the cheapest
+     * chain is found with Bellman-Ford over the slots, using a queue per pair of slots that keeps the cheapest group
+     * to bump at the front.
+     * @return the index into timeSlots assigned to each group
+     * @throws MatchMakingException if the groups don't fit in the time slots
+     */
+    static int[] assignTimeSlots(List<MatchGroup> matchGroups, List<PlayTime> timeSlots, int slotCapacity) {
+        int groupCount = matchGroups.size();
+        int slotCount = timeSlots.size();
+        if((long) slotCapacity * slotCount < groupCount) {
+            throw new MatchMakingException(String.format(ERROR_NOT_ENOUGH_COURTS, groupCount));
+        }
+
+        long[][] scores = new long[groupCount][];
+        for(int i = 0;i < groupCount;i++) {
+            scores[i] = scoreTimeSlots(matchGroups.get(i), timeSlots, groupCount);
+        }
+
+        int[] groupSlots = new int[groupCount];
+        Arrays.fill(groupSlots, NO_SLOT);
+        int[] slotSizes = new int[slotCount];
 
-            while(slotBGroups.size() - slotAGroups.size() > 1) {
-                slotAGroups.add(slotBGroups.remove(slotBGroups.size() - 1));
+        //moveQueues[from][to] holds the groups that have been placed in the from slot, cheapest to move to the to slot first.
+        //Groups that have since been moved out are only removed once they reach the front
+        List<List<PriorityQueue<Integer>>> moveQueues = new ArrayList<>();
+        for(int from = 0;from < slotCount;from++) {
+            List<PriorityQueue<Integer>> fromQueues = new ArrayList<>();
+            for(int to = 0;to < slotCount;to++) {
+                fromQueues.add(new PriorityQueue<>(Comparator.comparingLong(moveCost(scores, from, to))));
             }
+            moveQueues.add(fromQueues);
+        }
+
+        long[] pathCosts = new long[slotCount];
+        int[] previousSlots = new int[slotCount];
+        int[][] moveGroups = new int[slotCount][slotCount];
 
-            for(int i = 0;i < slotAGroups.size();i++) {
-                courts.get(i).scheduleMatch(slotAGroups.get(i), PlayTime.TIME_SLOT_A);
+        for(int group = 0;group < groupCount;group++) {
+            for(int from = 0;from < slotCount;from++) {
+                for(int to = 0;to < slotCount;to++) {
+                    moveGroups[from][to] = from == to ? NO_GROUP : findCheapestMove(moveQueues.get(from).get(to), groupSlots, from);
+                }
             }
 
-            for(int i = 0;i < slotBGroups.size();i++) {
-                courts.get(slotAGroups.size() + i).scheduleMatch(slotBGroups.get(i), PlayTime.TIME_SLOT_B);
+            //cost of the cheapest chain of moves that ends by placing the new group or a bumped group in each slot
+            for(int slot = 0;slot < slotCount;slot++) {
+                pathCosts[slot] = -scores[group][slot];
+                previousSlots[slot] = NO_SLOT;
             }
+            for(int round = 1;round < slotCount;round++) {
+                boolean isUpdated = false;
+                for(int from = 0;from < slotCount;from++) {
+                    for(int to = 0;to < slotCount;to++) {
+                        int moveGroup = moveGroups[from][to];
+                        if(moveGroup == NO_GROUP) {
+                            continue;
+                        }
+                        long moveCost = scores[moveGroup][from] - scores[moveGroup][to];
+                        if(pathCosts[from] + moveCost < pathCosts[to]) {
+                            pathCosts[to] = pathCosts[from] + moveCost;
+                            previousSlots[to] = from;
+                            isUpdated = true;
+                        }
+                    }
+                }
+                if(!isUpdated) {
+                    break;
+                }
+            }
+
+            int endSlot = NO_SLOT;
+            for(int slot = 0;slot < slotCount;slot++) {
+                if(slotSizes[slot] < slotCapacity && (endSlot == NO_SLOT || pathCosts[slot] < pathCosts[endSlot])) {
+                    endSlot = slot;
+                }
+            }
+            assert(endSlot != NO_SLOT);
+
+            //walk the chain backwards, moving each bumped group into the slot after it
+            slotSizes[endSlot]++;
+            int slot = endSlot;
+            while(previousSlots[slot] != NO_SLOT) {
+                int fromSlot = previousSlots[slot];
+                placeGroup(moveQueues, groupSlots, moveGroups[fromSlot][slot], slot);
+                slot = fromSlot;
+            }
+            placeGroup(moveQueues, groupSlots, group, slot);
         }
 
-        return courts;
+        return groupSlots;
+    }
+
+    /**
+     * The score of a slot is the number of teams in the group that prefer it. Each vote is worth more than
+     * every tie breaker combined, and the tie breaker is a single point for the group's preferred play time.
+     */
+    private static long[] scoreTimeSlots(MatchGroup matchGroup, List<PlayTime> timeSlots, int groupCount) {
+        long voteScore = groupCount + 1;
+        PlayTime preferredGroupPlayTime = matchGroup.getPreferredGroupPlayTime();
+
+        long[] slotScores = new long[timeSlots.size()];
+        for(int slot = 0;slot < timeSlots.size();slot++) {
+            PlayTime timeSlot = timeSlots.get(slot);
+            for(Team team : matchGroup.getTeams()) {
+                if(team.getAttendanceCard().getPreferredPlayTime() == timeSlot) {
+                    slotScores[slot] += voteScore;
+                }
+            }
+            if(preferredGroupPlayTime == timeSlot) {
+                slotScores[slot]++;
+            }
+        }
+        return slotScores;
+    }
+
+    private static ToLongFunction<Integer> moveCost(long[][] scores, int from, int to) {
+        return group -> scores[group][from] - scores[group][to];
+    }
+
+    private static int findCheapestMove(PriorityQueue<Integer> moveQueue, int[] groupSlots, int from) {
+        while(!moveQueue.isEmpty() && groupSlots[moveQueue.peek()] != from) {
+            moveQueue.poll();
+        }
+        return moveQueue.isEmpty() ? NO_GROUP : moveQueue.peek();
+    }
+
+    private static void placeGroup(List<List<PriorityQueue<Integer>>> moveQueues, int[] groupSlots, int group, int slot) {
+        groupSlots[group] = slot;
+        for(int to = 0;to < moveQueues.size();to++) {
+            if(to != slot) {
+                moveQueues.get(slot).get(to).add(group);
+            }
+        }
     }
 }
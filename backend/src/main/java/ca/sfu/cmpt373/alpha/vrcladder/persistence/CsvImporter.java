@@ -1,18 +1,43 @@
 package ca.sfu.cmpt373.alpha.vrcladder.persistence;
 
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ValidationException;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.LadderPosition;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserBuilder;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.Password;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
-import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.HibernateException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Given a String for a csv file in the form (Last Name,First Name,Player #,Status,,Last Name,First Name,Player #,Status,Ranking)
+ * Given a csv file in the form (Last Name,First Name,Player #,Status,,Last Name,First Name,Player #,Status,Ranking)
  * This class will add all the data to the database. Note: there is currently little error handling done.
+ *
+ * The file is read one row at a time, and the rows are written in chunks: each chunk looks up its existing players
+ * and teams with one query each, and then saves its new players and teams in a single transaction, in JDBC batches.
+ * Only one chunk is held in memory at a time, so large files are imported in linear time and constant memory.
  */
 public class CsvImporter {
     private static final String DEFAULT_EMAIL = "test%s@test.com";
@@ -24,93 +49,273 @@ public class CsvImporter {
     private static final String COMMA = ",";
     private static final String ERROR_ADDING_TEAM = "There was an error adding team on row";
 
+    private static final int COLUMN_COUNT = 10;
+    private static final int CHUNK_SIZE = 10 * SessionManager.JDBC_BATCH_SIZE;
+
     private UserManager userManager;
     private TeamManager teamManager;
     private SecurityManager securityManager;
+    private int chunkSize;
 
     public CsvImporter(UserManager userManager, TeamManager teamManager, SecurityManager securityManager) {
+        this(userManager, teamManager, securityManager, CHUNK_SIZE);
+    }
+
+    CsvImporter(UserManager userManager, TeamManager teamManager, SecurityManager securityManager, int chunkSize) {
         this.userManager = userManager;
         this.teamManager = teamManager;
         this.securityManager = securityManager;
+        this.chunkSize = chunkSize;
     }
 
     /**
-     * Given a csv file String, this method will insert its data to the database.
+     * @see #insertData(Reader)
+     */
+    public String insertData(String csvFile) {
+        try {
+            return insertData(new StringReader(csvFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a UTF-8 csv file from the stream
+     * @see #insertData(Reader)
+     */
+    public String insertData(InputStream csvFile) throws IOException {
+        return insertData(new InputStreamReader(csvFile, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Given a csv file, this method will insert its data to the database.
      * Notes: the position column is currently being ignored to prevent gaps in the database (ex: add teams at 1, 2, 4)
+     * Instead, teams are added to the bottom of the ladder in the order they are provided.
      * Last names of players are also not being enforced because vrc's data doesn't supply last names for everyone
      * Middle names, email addresses, passwords and phone numbers are all not provided (or known) by the vrc, so these are
      * initialized to dummy default values
+     * Players that are already in the database are reused, and teams that already exist are reported as errors.
      * @return a String that contains information about all the errors that occurred when adding data to the database
      */
-    public String insertData(String csvFile) {
-        String errorLog = "";
-        int emailCount = 0;
-        String[] rows = csvFile.split(NEW_LINE);
+    public String insertData(Reader csvFile) throws IOException {
+        //every imported player starts with the same default password, so it only has to go through the deliberately
+        //slow hashing once. The hash is salted, and a new salt is used for each import
+        Password defaultPassword = securityManager.hashPassword(DEFAULT_PASSWORD);
+        ImportState importState = new ImportState(defaultPassword);
+        BufferedReader csvReader = new BufferedReader(csvFile);
+
         //skip the first row because it just contains headers with column names
-        for (int i = 1; i < rows.length; i++) {
-            String row = rows[i];
-            String[] columns = row.split(COMMA);
-
-            String firstPlayerLastName = columns[0];
-            String firstPlayerFirstName = columns[1];
-            String firstPlayerId = columns[2];
-
-            String statusPlayer1 = columns[3];
-
-            String secondPlayerLastName = columns[5];
-            String secondPlayerFirstName = columns[6];
-            String secondPlayerId = columns[7];
-
-            String statusPlayer2 = columns[8];
-
-            String position = columns[9];
-            if (
-//                    !position.isEmpty() we are currently ignoring position, and just adding teams in the order they are provided
-//                    !firstPlayerLastName.isEmpty() && we currently don't care about last names
-                    !firstPlayerFirstName.isEmpty() &&
-                    !firstPlayerId.isEmpty() &&
-                    statusPlayer1.isEmpty() && //note that this is supposed to be empty!
-//                    !secondPlayerLastName.isEmpty() && we currently don't care about last names
-                    !secondPlayerFirstName.isEmpty() &&
-                    !secondPlayerId.isEmpty() &&
-                    statusPlayer2.isEmpty()) { //also should be empty
-                try {
-                    User user1 = addPlayer(userManager, firstPlayerFirstName, firstPlayerLastName, firstPlayerId, emailCount);
-                    emailCount++;
-                    User user2 = addPlayer(userManager, secondPlayerFirstName, secondPlayerLastName, secondPlayerId, emailCount);
-                    emailCount++;
-                    teamManager.create(user1, user2);
-                } catch (ConstraintViolationException | ValidationException e) {
-                    //currently, we're not checking the form of the data. Ex: userId is only numbers
-                    //so, if invalid data is passed in, an error will occur
-                    errorLog += ERROR_ADDING_TEAM + i + NEW_LINE;
-                }
+        csvReader.readLine();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int rowIndex = 1;
+        String row;
+        while ((row = csvReader.readLine()) != null) {
+            ImportRow importRow = parseRow(row, rowIndex, importState);
+            if (importRow == null) {
+                importState.logError(rowIndex);
             } else {
-                errorLog += ERROR_ADDING_TEAM + i + NEW_LINE;
+                chunk.add(importRow);
+            }
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, importState);
+                chunk.clear();
             }
+            rowIndex++;
         }
-        return errorLog;
+        importChunk(chunk, importState);
+
+        return importState.errorLog.toString();
     }
 
-    private User addPlayer(UserManager userManager, String firstName, String lastName, String id, int emailCount) {
-        User user;
+    /**
+     * @return the players in the row, or null if the row is missing any of the required values
+     */
+    private ImportRow parseRow(String row, int rowIndex, ImportState importState) {
+        String[] columns = row.split(COMMA, -1);
+        if (columns.length < COLUMN_COUNT) {
+            return null;
+        }
+
+        String firstPlayerLastName = columns[0];
+        String firstPlayerFirstName = columns[1];
+        String firstPlayerId = columns[2];
+
+        String statusPlayer1 = columns[3];
+
+        String secondPlayerLastName = columns[5];
+        String secondPlayerFirstName = columns[6];
+        String secondPlayerId = columns[7];
+
+        String statusPlayer2 = columns[8];
+
+        if (
+//                !position.isEmpty() we are currently ignoring position, and just adding teams in the order they are provided
+//                !firstPlayerLastName.isEmpty() && we currently don't care about last names
+                !firstPlayerFirstName.isEmpty() &&
+                !firstPlayerId.isEmpty() &&
+                statusPlayer1.isEmpty() && //note that this is supposed to be empty!
+//                !secondPlayerLastName.isEmpty() && we currently don't care about last names
+                !secondPlayerFirstName.isEmpty() &&
+                !secondPlayerId.isEmpty() &&
+                statusPlayer2.isEmpty()) { //also should be empty
+            try {
+                //currently, we're not checking the form of the data. Ex: userId is only numbers
+                //so, if invalid data is passed in, it is reported as an error
+                User firstPlayer = buildPlayer(firstPlayerFirstName, firstPlayerLastName, firstPlayerId, importState);
+                User secondPlayer = buildPlayer(secondPlayerFirstName, secondPlayerLastName, secondPlayerId, importState);
+                return new ImportRow(rowIndex, firstPlayer, secondPlayer);
+            } catch (ValidationException | IllegalStateException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private User buildPlayer(String firstName, String lastName, String id, ImportState importState) {
+        //note: hardcoded values are values not currently supplied in the csv file
+        User player = new UserBuilder()
+                .setFirstName(firstName)
+                .setLastName(lastName)
+                .setUserId(id)
+                .setMiddleName(DEFAULT_MIDDLE_NAME)
+                .setUserRole(UserRole.PLAYER)
+                .setEmailAddress(String.format(DEFAULT_EMAIL, importState.emailCount))
+                .setPhoneNumber(DEFAULT_PHONE)
+                .setPassword(new Password(importState.defaultPassword.getHash()))
+                .buildUser();
+        importState.emailCount++;
+        return player;
+    }
+
+    /**
+     * Saves the chunk in one transaction. If that fails, the rows are saved one at a time instead,
+     * so that only the rows that can't be added are reported.
+     */
+    private void importChunk(List<ImportRow> chunk, ImportState importState) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<UserId> playerIds = new LinkedHashSet<>();
+        for (ImportRow importRow : chunk) {
+            playerIds.add(importRow.firstPlayer.getUserId());
+            playerIds.add(importRow.secondPlayer.getUserId());
+        }
+        Map<UserId, User> chunkPlayers = new HashMap<>();
+        for (User player : userManager.getAllById(playerIds)) {
+            chunkPlayers.put(player.getUserId(), player);
+        }
+        Set<Set<UserId>> savedPlayerPairs = new HashSet<>();
+        for (UserId[] playerIdPair : teamManager.getPlayerIdPairs(playerIds)) {
+            savedPlayerPairs.add(new HashSet<>(Arrays.asList(playerIdPair)));
+        }
+
+        Set<UserId> existingPlayerIds = new HashSet<>(chunkPlayers.keySet());
+        List<ImportRow> teamRows = new ArrayList<>();
+        List<Team> teams = new ArrayList<>();
+        List<User> newPlayers = new ArrayList<>();
+        for (ImportRow importRow : chunk) {
+            Team team = buildTeam(importRow, chunkPlayers, savedPlayerPairs, newPlayers, importState);
+            if (team != null) {
+                teamRows.add(importRow);
+                teams.add(team);
+            }
+        }
+
+        //the chunk's teams are placed at the bottom of the ladder in the order they were given, in positions
+        //reserved together so that teams created at the same time can't take any of them
+        int firstLadderPosition = teamManager.reserveLadderPositions(teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            teams.get(i).setLadderPosition(new LadderPosition(firstLadderPosition + i));
+        }
+
         try {
-            //note: hardcoded values are values not currently supplied in the csv file
-            user = userManager.create(new UserBuilder()
-                    .setFirstName(firstName)
-                    .setLastName(lastName)
-                    .setUserId(id)
-                    .setMiddleName(DEFAULT_MIDDLE_NAME)
-                    .setUserRole(UserRole.PLAYER)
-                    .setEmailAddress(String.format(DEFAULT_EMAIL, emailCount))
-                    .setPhoneNumber(DEFAULT_PHONE)
-                    .setPassword(securityManager.hashPassword(DEFAULT_PASSWORD))
-                    .buildUser());
-        } catch (ConstraintViolationException e) {
-            //if there is a duplicate user created, just return the existing one from the database
-            return userManager.getById(new UserId(id));
-        }
-        return user;
+            teamManager.createAll(newPlayers, teams);
+            return;
+        } catch (HibernateException e) {
+            //fall through and find the rows that failed
+            teamManager.releaseLadderPositions(firstLadderPosition, teams.size());
+        }
+
+        for (int i = 0; i < teams.size(); i++) {
+            Team failedTeam = teams.get(i);
+            List<User> rowNewPlayers = new ArrayList<>();
+            for (User player : Arrays.asList(failedTeam.getFirstPlayer(), failedTeam.getSecondPlayer())) {
+                if (!existingPlayerIds.contains(player.getUserId())) {
+                    rowNewPlayers.add(player);
+                }
+            }
+
+            int ladderPosition = teamManager.reserveLadderPositions(1);
+            Team team = new Team(failedTeam.getFirstPlayer(), failedTeam.getSecondPlayer(),
+                    new LadderPosition(ladderPosition));
+            try {
+                teamManager.createAll(rowNewPlayers, Collections.singletonList(team));
+                for (User player : rowNewPlayers) {
+                    existingPlayerIds.add(player.getUserId());
+                }
+            } catch (HibernateException e) {
+                teamManager.releaseLadderPositions(ladderPosition, 1);
+                importState.logError(teamRows.get(i).rowIndex);
+            }
+        }
     }
-}
 
+    /**
+     * Builds the team for the row, reusing players that are already saved or added earlier in the chunk.
+     * New players are added to newPlayers. The team's ladder position is set once the chunk's positions are reserved.
+     * @return the team, or null if it is a duplicate of an existing team or has the same player twice
+     */
+    private Team buildTeam(ImportRow importRow, Map<UserId, User> chunkPlayers, Set<Set<UserId>> savedPlayerPairs,
+                           List<User> newPlayers, ImportState importState) {
+        UserId firstPlayerId = importRow.firstPlayer.getUserId();
+        UserId secondPlayerId = importRow.secondPlayer.getUserId();
+        Set<UserId> playerPair = new HashSet<>(Arrays.asList(firstPlayerId, secondPlayerId));
+        if (firstPlayerId.equals(secondPlayerId) || !savedPlayerPairs.add(playerPair)) {
+            importState.logError(importRow.rowIndex);
+            return null;
+        }
+
+        User firstPlayer = findOrAddPlayer(importRow.firstPlayer, chunkPlayers, newPlayers);
+        User secondPlayer = findOrAddPlayer(importRow.secondPlayer, chunkPlayers, newPlayers);
+        return new Team(firstPlayer, secondPlayer, null);
+    }
+
+    private User findOrAddPlayer(User player, Map<UserId, User> chunkPlayers, List<User> newPlayers) {
+        User savedPlayer = chunkPlayers.get(player.getUserId());
+        if (savedPlayer != null) {
+            return savedPlayer;
+        }
+
+        //if a player is on more than one team, only the first one is saved and the rest reuse it
+        chunkPlayers.put(player.getUserId(), player);
+        newPlayers.add(player);
+        return player;
+    }
+
+    private static class ImportRow {
+        private final int rowIndex;
+        private final User firstPlayer;
+        private final User secondPlayer;
+
+        ImportRow(int rowIndex, User firstPlayer, User secondPlayer) {
+            this.rowIndex = rowIndex;
+            this.firstPlayer = firstPlayer;
+            this.secondPlayer = secondPlayer;
+        }
+    }
+
+    private static class ImportState {
+        private final StringBuilder errorLog = new StringBuilder();
+        private final Password defaultPassword;
+        private int emailCount = 0;
+
+        ImportState(Password defaultPassword) {
+            this.defaultPassword = defaultPassword;
+        }
+
+        void logError(int rowIndex) {
+            errorLog.append(ERROR_ADDING_TEAM).append(rowIndex).append(NEW_LINE);
+        }
+    }
+}
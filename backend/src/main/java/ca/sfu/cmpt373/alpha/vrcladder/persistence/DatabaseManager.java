@@ -6,6 +6,7 @@ import org.hibernate.Transaction;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * The DatabaseManager implements both read and delete (by ID) operations,
@@ -18,6 +19,10 @@ import java.util.List;
  */
 public abstract class DatabaseManager<T> {
 
+    private static final String HQL_WHERE = " where ";
+    private static final String HQL_AND = " and ";
+    private static final String HQL_DELETE_FROM = "delete from ";
+
     private final Class<T> STORED_CLASS_TYPE;
     protected SessionManager sessionManager;
 
@@ -61,6 +66,19 @@ public abstract class DatabaseManager<T> {
         return entityList;
     }
 
+    /**
+     * Joins the given HQL conditions into a where clause, or returns an empty string if there are none.
+     * Used by queries that only filter on the parameters they were actually given, such as pages of results
+     * that start after a cursor.
+     */
+    protected static String buildWhereClause(List<String> conditions) {
+        if (conditions.isEmpty()) {
+            return "";
+        }
+
+        return conditions.stream().collect(Collectors.joining(HQL_AND, HQL_WHERE, ""));
+    }
+
     protected T update(T obj) {
         Session session = sessionManager.getSession();
         Transaction transaction = session.beginTransaction();
@@ -100,17 +118,25 @@ public abstract class DatabaseManager<T> {
         return obj;
     }
 
-    //note this may be inefficient if there are many items,
-    //since each item has to be retrieved before deletion.
-    protected List<T> deleteAll() {
-        List<T> items = getAll();
-
+    /**
+     * Deletes every entity of type T with a bulk delete, without loading any of them. Hibernate clears the
+     * entity's join tables with one statement each before deleting its rows.
+     * Cascades are not applied, so managers of entities that cascade to others delete those themselves.
+     * @return the number of entities deleted
+     */
+    protected int deleteAll() {
         Session session = sessionManager.getSession();
         Transaction transaction = session.beginTransaction();
-        items.stream().forEach(session::delete);
+
+        int deletedCount = session.createQuery(buildDeleteAllQuery(STORED_CLASS_TYPE)).executeUpdate();
         transaction.commit();
         session.close();
-        return items;
+
+        return deletedCount;
+    }
+
+    protected static String buildDeleteAllQuery(Class<?> entityType) {
+        return HQL_DELETE_FROM + entityType.getName();
     }
 
 }
@@ -13,6 +13,7 @@ public class PersistenceConstants {
     public static final String COLUMN_PHONE_NUMBER = "PHONE_NUMBER";
     public static final String COLUMN_PASSWORD_HASH = "PASSWORD_HASH";
     public static final String COLUMN_FAILED_ATTEMPTS = "ATTEMPTS";
+    public static final String COLUMN_TOKEN_VERSION = "TOKEN_VERSION";
 
     public static final String TABLE_TEAM = "TEAM";
     public static final String COLUMN_ATTENDANCE_CARD_ID = "ATTENDANCE_CARD_ID";
@@ -28,6 +29,12 @@ public class PersistenceConstants {
     public static final String TABLE_MATCH_GROUP = "MATCH_GROUP";
 
     public static final String TABLE_COURT = "COURT";
+
+    public static final String TABLE_REVOKED_TOKEN = "REVOKED_TOKEN";
+    public static final String COLUMN_EXPIRATION_TIME = "EXPIRATION_TIME";
+
+    public static final String CACHE_REGION_LADDER = "ladder";
+
     public static final String INVALID_PROPERTY_VALUE = "invalid";
     public static final String EXISTING_USER_ID = "User ID already exists";
     public static final String EXISTING_USER_EMAIL = "Email Address already exists";
@@ -6,6 +6,7 @@ import ca.sfu.cmpt373.alpha.vrcladder.scores.ScoreCard;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceCard;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.RevokedToken;
 import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -14,14 +15,24 @@ import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Provides interface to create and manage Sessions (connections) to the database (data source).
+ * Connections are taken from a c3p0 pool, which is sized and tuned through the ConfigurationManager.
+ * Entities and the ladder query are kept in an in-process second-level cache, whose regions are bounded in ehcache.xml.
+ *
+ * While a unit of work is active on the current thread, getSession() hands out that unit's shared Session instead of
+ * opening a new one, so all the DatabaseManager calls made for one request run in a single transaction.
  */
 public class SessionManager {
 
     private SessionFactory sessionFactory;
     private ConfigurationManager configurationManager;
+    private final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
 
     private static final String PROPERTY_CONNECTION_URL = "hibernate.connection.url";
     private static final String PROPERTY_DRIVER = "hibernate.connection.driver_class";
@@ -29,6 +40,35 @@ public class SessionManager {
     private static final String PROPERTY_PASSWORD = "hibernate.connection.password";
     private static final String PROPERTY_DIALECT = "hibernate.dialect";
     private static final String PROPERTY_CREATE_MODE = "hibernate.hbm2ddl.auto";
+    private static final String PROPERTY_CONNECTION_PROVIDER = "hibernate.connection.provider_class";
+    private static final String PROPERTY_POOL_MIN_SIZE = "hibernate.c3p0.min_size";
+    private static final String PROPERTY_POOL_MAX_SIZE = "hibernate.c3p0.max_size";
+    private static final String PROPERTY_POOL_IDLE_TIMEOUT = "hibernate.c3p0.timeout";
+    private static final String PROPERTY_POOL_CHECKOUT_TIMEOUT = "hibernate.c3p0.checkoutTimeout";
+    private static final String PROPERTY_POOL_STATEMENT_CACHE_SIZE = "hibernate.c3p0.max_statements";
+    private static final String PROPERTY_POOL_LEAK_TIMEOUT = "hibernate.c3p0.unreturnedConnectionTimeout";
+    private static final String PROPERTY_POOL_LEAK_STACK_TRACES = "hibernate.c3p0.debugUnreturnedConnectionStackTraces";
+    private static final String POOLED_CONNECTION_PROVIDER = "org.hibernate.c3p0.internal.C3P0ConnectionProvider";
+    private static final String PROPERTY_BATCH_SIZE = "hibernate.jdbc.batch_size";
+    private static final String PROPERTY_ORDER_INSERTS = "hibernate.order_inserts";
+    private static final String PROPERTY_ORDER_UPDATES = "hibernate.order_updates";
+    private static final String PROPERTY_BATCH_FETCH_SIZE = "hibernate.default_batch_fetch_size";
+    private static final String PROPERTY_USE_SECOND_LEVEL_CACHE = "hibernate.cache.use_second_level_cache";
+    private static final String PROPERTY_USE_QUERY_CACHE = "hibernate.cache.use_query_cache";
+    private static final String PROPERTY_CACHE_REGION_FACTORY = "hibernate.cache.region.factory_class";
+    private static final String PROPERTY_GENERATE_STATISTICS = "hibernate.generate_statistics";
+    private static final String CACHE_REGION_FACTORY = "org.hibernate.cache.ehcache.EhCacheRegionFactory";
+
+    /**
+     * The number of statements sent to the database at once when many entities are written in one transaction
+     */
+    public static final int JDBC_BATCH_SIZE = 50;
+
+    /**
+     * The number of entities or collections that are loaded together when Hibernate has to fetch them
+     * one association at a time, such as collections of entities that were loaded as part of another collection
+     */
+    public static final int BATCH_FETCH_SIZE = 50;
 
     public SessionManager(ConfigurationManager configurationManager) {
         this.configurationManager = configurationManager;
@@ -42,7 +82,92 @@ public class SessionManager {
     }
 
     public Session getSession() {
-        return sessionFactory.openSession();
+        UnitOfWork currentUnitOfWork = unitOfWork.get();
+        if (currentUnitOfWork == null) {
+            return sessionFactory.openSession();
+        }
+
+        return currentUnitOfWork.getSession();
+    }
+
+    /**
+     * Starts a unit of work on the current thread. Any unit of work left over from an earlier request that
+     * never ended (for example, one that was halted) is rolled back first.
+     */
+    public void beginUnitOfWork() {
+        endUnitOfWork(false);
+        unitOfWork.set(new UnitOfWork(sessionFactory));
+    }
+
+    /**
+     * Ends the current thread's unit of work, if there is one. Its changes are committed only if commit is true
+     * and none of the DatabaseManager calls made during it failed or rolled back.
+     */
+    public void endUnitOfWork(boolean commit) {
+        UnitOfWork currentUnitOfWork = unitOfWork.get();
+        if (currentUnitOfWork == null) {
+            return;
+        }
+
+        unitOfWork.remove();
+        currentUnitOfWork.end(commit);
+    }
+
+    /**
+     * Runs the callback once the changes made so far on the current thread have really been committed or rolled back,
+     * giving it true if they were committed. Meant for state kept in memory that has to match what was saved.
+     *
+     * While a unit of work is active, the DatabaseManagers' commits only flush it, so the callback waits until the unit
+     * of work ends. Otherwise each commit is final, so the callback is run right away as committed.
+     */
+    public void afterCompletion(Consumer<Boolean> callback) {
+        UnitOfWork currentUnitOfWork = unitOfWork.get();
+        if (currentUnitOfWork == null) {
+            callback.accept(true);
+        } else {
+            currentUnitOfWork.addCompletionCallback(callback);
+        }
+    }
+
+    /**
+     * Runs work that doesn't use the database but can take a while, such as hashing a password, without holding on to
+     * a pooled connection meanwhile if possible. The current unit of work's Session is closed first if it has only
+     * been read from, and a new one is opened the next time it is needed.
+     *
+     * Once something has been written, the connection is kept, since giving it back would mean committing the changes
+     * before the rest of the request has run. Slow work should be done before anything is written.
+     */
+    public <T> T runWithoutConnection(Supplier<T> work) {
+        UnitOfWork currentUnitOfWork = unitOfWork.get();
+        if (currentUnitOfWork != null) {
+            currentUnitOfWork.releaseSession();
+        }
+
+        return work.get();
+    }
+
+    public boolean isUnitOfWorkActive() {
+        return unitOfWork.get() != null;
+    }
+
+    /**
+     * Query, entity, and second-level cache statistics (hits, misses, and puts per region) since the SessionManager
+     * was created.
+     */
+    public Statistics getStatistics() {
+        return sessionFactory.getStatistics();
+    }
+
+    /**
+     * Drops every cached entity of the given class. Only needed after the database has been changed without going
+     * through Hibernate.
+     */
+    public void evictCacheRegion(Class entityClass) {
+        sessionFactory.getCache().evictEntityRegion(entityClass);
+    }
+
+    public void evictAllCacheRegions() {
+        sessionFactory.getCache().evictAllRegions();
     }
 
     private SessionFactory buildSessionFactory() {
@@ -53,12 +178,30 @@ public class SessionManager {
                 .addAnnotatedClass(Team.class)
                 .addAnnotatedClass(User.class)
                 .addAnnotatedClass(Court.class)
+                .addAnnotatedClass(RevokedToken.class)
                 .setProperty(PROPERTY_CONNECTION_URL, configurationManager.getDatabaseUrl())
                 .setProperty(PROPERTY_DRIVER, configurationManager.getDatabaseDriver())
                 .setProperty(PROPERTY_USERNAME, configurationManager.getDatabaseUsername())
                 .setProperty(PROPERTY_PASSWORD, configurationManager.getDatabasePassword())
                 .setProperty(PROPERTY_DIALECT, configurationManager.getDatabaseDialect())
                 .setProperty(PROPERTY_CREATE_MODE, configurationManager.getDatabaseCreateMode())
+                .setProperty(PROPERTY_CONNECTION_PROVIDER, POOLED_CONNECTION_PROVIDER)
+                .setProperty(PROPERTY_POOL_MIN_SIZE, String.valueOf(configurationManager.getDatabasePoolMinSize()))
+                .setProperty(PROPERTY_POOL_MAX_SIZE, String.valueOf(configurationManager.getDatabasePoolMaxSize()))
+                .setProperty(PROPERTY_POOL_IDLE_TIMEOUT, String.valueOf(configurationManager.getDatabasePoolIdleTimeout()))
+                .setProperty(PROPERTY_POOL_CHECKOUT_TIMEOUT, String.valueOf(configurationManager.getDatabasePoolCheckoutTimeout()))
+                .setProperty(PROPERTY_POOL_STATEMENT_CACHE_SIZE, String.valueOf(configurationManager.getDatabaseStatementCacheSize()))
+                .setProperty(PROPERTY_POOL_LEAK_TIMEOUT, String.valueOf(configurationManager.getDatabaseLeakDetectionTimeout()))
+                //log where leaked connections were checked out from, so the code that forgot to close its session can be found
+                .setProperty(PROPERTY_POOL_LEAK_STACK_TRACES, Boolean.TRUE.toString())
+                .setProperty(PROPERTY_BATCH_SIZE, String.valueOf(JDBC_BATCH_SIZE))
+                .setProperty(PROPERTY_ORDER_INSERTS, Boolean.TRUE.toString())
+                .setProperty(PROPERTY_ORDER_UPDATES, Boolean.TRUE.toString())
+                .setProperty(PROPERTY_BATCH_FETCH_SIZE, String.valueOf(BATCH_FETCH_SIZE))
+                .setProperty(PROPERTY_USE_SECOND_LEVEL_CACHE, Boolean.TRUE.toString())
+                .setProperty(PROPERTY_USE_QUERY_CACHE, Boolean.TRUE.toString())
+                .setProperty(PROPERTY_CACHE_REGION_FACTORY, CACHE_REGION_FACTORY)
+                .setProperty(PROPERTY_GENERATE_STATISTICS, Boolean.TRUE.toString())
                 .buildSessionFactory();
     }
 }
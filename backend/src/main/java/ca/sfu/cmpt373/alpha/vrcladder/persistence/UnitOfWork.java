@@ -0,0 +1,176 @@
+package ca.sfu.cmpt373.alpha.vrcladder.persistence;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A single Session and Transaction shared by every DatabaseManager call made while handling one request.
+ *
+ * The managers still open, commit, and close their sessions as if each call had its own, so the Session they are
+ * given is a wrapper: closing it does nothing, committing its transaction only flushes the pending changes
+ * (so errors such as constraint violations are still raised where the managers expect them), and rolling back
+ * marks the whole unit of work to be rolled back. The real transaction is committed or rolled back once, by end().
+ *
+ * The Session is only opened the first time it is asked for, so requests that never touch the database don't
+ * check out a connection. Until something has been written, the Session can also be closed and opened again later,
+ * so that the connection isn't held during slow work that doesn't need it.
+ *
+ * Anything kept in memory alongside the database can register a completion callback, which is run by end() once the
+ * real transaction has been committed or rolled back.
+ */
+class UnitOfWork {
+
+    private static final Logger LOGGER = Logger.getLogger(UnitOfWork.class.getName());
+
+    private static final String METHOD_CLOSE = "close";
+    private static final String METHOD_BEGIN_TRANSACTION = "beginTransaction";
+    private static final String METHOD_GET_TRANSACTION = "getTransaction";
+    private static final String METHOD_COMMIT = "commit";
+    private static final String METHOD_ROLLBACK = "rollback";
+
+    private final SessionFactory sessionFactory;
+
+    private Session session;
+    private Transaction transaction;
+    private Session sharedSession;
+    private Transaction sharedTransaction;
+    private boolean isRollbackOnly;
+    private boolean hasWritten;
+    private final List<Consumer<Boolean>> completionCallbacks = new ArrayList<>();
+
+    UnitOfWork(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.isRollbackOnly = false;
+    }
+
+    Session getSession() {
+        if (session == null) {
+            session = sessionFactory.openSession();
+            transaction = session.beginTransaction();
+            sharedSession = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class[]{Session.class}, this::invokeOnSession);
+            sharedTransaction = (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(),
+                new Class[]{Transaction.class}, this::invokeOnTransaction);
+        }
+
+        return sharedSession;
+    }
+
+    /**
+     * Closes the Session, giving its connection back to the pool, if nothing has been written through it yet. The
+     * unit of work carries on as before, and opens a new Session the next time one is asked for.
+     * @return false if changes have already been written, in which case the Session is kept so that they are still
+     * committed or rolled back together with the rest of the unit of work
+     */
+    boolean releaseSession() {
+        if (session == null) {
+            return true;
+        }
+        if (hasWritten || session.isDirty()) {
+            return false;
+        }
+
+        try {
+            transaction.rollback();
+        } finally {
+            session.close();
+            session = null;
+            transaction = null;
+            sharedSession = null;
+            sharedTransaction = null;
+        }
+        return true;
+    }
+
+    /**
+     * @param callback is given true once this unit of work has been committed, or false once it has been rolled back
+     */
+    void addCompletionCallback(Consumer<Boolean> callback) {
+        completionCallbacks.add(callback);
+    }
+
+    /**
+     * Commits everything done in this unit of work if commit is true and nothing has asked for a rollback,
+     * otherwise rolls it all back. The Session is closed either way, and then the completion callbacks are run.
+     */
+    void end(boolean commit) {
+        boolean isCommitted = false;
+        try {
+            if (session != null) {
+                try {
+                    if (commit && !isRollbackOnly) {
+                        transaction.commit();
+                        isCommitted = true;
+                    } else {
+                        transaction.rollback();
+                    }
+                } finally {
+                    session.close();
+                }
+            }
+        } finally {
+            runCompletionCallbacks(isCommitted);
+        }
+    }
+
+    private void runCompletionCallbacks(boolean isCommitted) {
+        for (Consumer<Boolean> callback : completionCallbacks) {
+            //every callback is run, even if an earlier one fails
+            try {
+                callback.accept(isCommitted);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "A unit of work completion callback failed", e);
+            }
+        }
+    }
+
+    private Object invokeOnSession(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case METHOD_CLOSE:
+                return null;
+            case METHOD_BEGIN_TRANSACTION:
+            case METHOD_GET_TRANSACTION:
+                return sharedTransaction;
+            default:
+                return invoke(session, method, args);
+        }
+    }
+
+    private Object invokeOnTransaction(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case METHOD_COMMIT:
+                hasWritten = true;
+                try {
+                    session.flush();
+                } catch (RuntimeException e) {
+                    isRollbackOnly = true;
+                    throw e;
+                }
+                return null;
+            case METHOD_ROLLBACK:
+                isRollbackOnly = true;
+                return null;
+            default:
+                return invoke(transaction, method, args);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
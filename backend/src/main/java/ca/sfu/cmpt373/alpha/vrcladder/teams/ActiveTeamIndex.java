@@ -0,0 +1,140 @@
+package ca.sfu.cmpt373.alpha.vrcladder.teams;
+
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MultiplePlayTimeException;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of which team each player is playing on this week, so that the rule that a player can only be
+ * attending with one team can be checked without querying for all of the player's teams.
+ *
+ * The index is loaded from the database the first time it is used, and then kept up to date by TeamManager as play
+ * times are committed. A team stays pending from when it claims its players until its play time has really been
+ * committed or rolled back, and a pending team always keeps its players. Teams can also be removed or stop playing
+ * without going through the index (such as when a player is deleted along with their teams), so when a player is
+ * found on another team that isn't pending, that team is looked up in the database before the player is refused, and
+ * dropped from the index if it is no longer playing.
+ */
+class ActiveTeamIndex {
+
+    private final Supplier<Map<UserId, GeneratedId>> activeTeamLoader;
+    private final Predicate<GeneratedId> activeTeamChecker;
+
+    private final ConcurrentMap<UserId, GeneratedId> activeTeamIds = new ConcurrentHashMap<>();
+    //teams that have claimed their players but might not have saved their play time yet
+    private final Set<GeneratedId> pendingTeamIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean isLoaded = false;
+
+    /**
+     * @param activeTeamLoader returns the id of the team each player is playing on, for every player that is playing
+     * @param activeTeamChecker tests whether the team with the given id exists and is playing
+     */
+    ActiveTeamIndex(Supplier<Map<UserId, GeneratedId>> activeTeamLoader, Predicate<GeneratedId> activeTeamChecker) {
+        this.activeTeamLoader = activeTeamLoader;
+        this.activeTeamChecker = activeTeamChecker;
+    }
+
+    /**
+     * Records the team as the one both of its players are playing on, before the team's play time is saved.
+     * Either confirm() or release() must be called once the play time has been committed or has failed to save.
+     * @return the players that weren't already recorded as playing on the team
+     * @throws MultiplePlayTimeException if either player is playing on another team
+     */
+    List<UserId> claim(Team team) {
+        load();
+
+        GeneratedId teamId = team.getId();
+        pendingTeamIds.add(teamId);
+        List<UserId> claimedPlayerIds = new ArrayList<>();
+        try {
+            for (UserId playerId : Arrays.asList(team.getFirstPlayer().getUserId(), team.getSecondPlayer().getUserId())) {
+                GeneratedId activeTeamId = activeTeamIds.putIfAbsent(playerId, teamId);
+                while (activeTeamId != null && !activeTeamId.equals(teamId)) {
+                    if (pendingTeamIds.contains(activeTeamId) || activeTeamChecker.test(activeTeamId)) {
+                        throw new MultiplePlayTimeException(playerId.toString(), activeTeamId.toString());
+                    }
+
+                    activeTeamIds.remove(playerId, activeTeamId);
+                    activeTeamId = activeTeamIds.putIfAbsent(playerId, teamId);
+                }
+
+                if (activeTeamId == null) {
+                    claimedPlayerIds.add(playerId);
+                }
+            }
+        } catch (RuntimeException e) {
+            release(teamId, claimedPlayerIds);
+            throw e;
+        }
+
+        return claimedPlayerIds;
+    }
+
+    /**
+     * Called once the play time of a team passed to claim() has been committed
+     */
+    void confirm(GeneratedId teamId) {
+        pendingTeamIds.remove(teamId);
+    }
+
+    /**
+     * Undoes claim() for a team whose play time could not be saved or was rolled back
+     * @param claimedPlayerIds the players returned by claim()
+     */
+    void release(GeneratedId teamId, List<UserId> claimedPlayerIds) {
+        for (UserId playerId : claimedPlayerIds) {
+            activeTeamIds.remove(playerId, teamId);
+        }
+        pendingTeamIds.remove(teamId);
+    }
+
+    /**
+     * Called once the team has stopped playing or has been deleted, and that has been committed
+     */
+    void remove(Team team) {
+        activeTeamIds.remove(team.getFirstPlayer().getUserId(), team.getId());
+        activeTeamIds.remove(team.getSecondPlayer().getUserId(), team.getId());
+    }
+
+    /**
+     * Called once every team has stopped playing, and that has been committed. Teams that are still pending keep
+     * their players, since their play times are saved after every team was stopped.
+     */
+    void clear() {
+        activeTeamIds.values().removeIf(teamId -> !pendingTeamIds.contains(teamId));
+        isLoaded = true;
+    }
+
+    /**
+     * Has the index loaded from the database again the next time it is used, for when changes that were expected to
+     * be committed were rolled back instead
+     */
+    void invalidate() {
+        isLoaded = false;
+    }
+
+    private void load() {
+        if (isLoaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!isLoaded) {
+                //pending claims are kept, and the teams left over from before are checked in the database if needed
+                activeTeamLoader.get().forEach(activeTeamIds::putIfAbsent);
+                isLoaded = true;
+            }
+        }
+    }
+
+}
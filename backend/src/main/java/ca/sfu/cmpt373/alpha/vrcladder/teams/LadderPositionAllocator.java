@@ -0,0 +1,63 @@
+package ca.sfu.cmpt373.alpha.vrcladder.teams;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Hands out the positions at the bottom of the ladder to new teams, so that concurrent team creations are each given
+ * their own position instead of all reading the same lowest position from the database.
+ *
+ * The counter is seeded from the database the first time a position is asked for, and again after reset() is called
+ * by anything that renumbers the ladder. Positions that end up not being used are given back with release(), which
+ * keeps the ladder contiguous unless another team was handed a position in the meantime. In that case the gap is
+ * closed the next time the ladder positions are rewritten.
+ *
+ * This assumes the application is the only one adding teams to the database.
+ */
+class LadderPositionAllocator {
+
+    private final IntSupplier lastPositionLoader;
+
+    private int nextPosition;
+    private boolean isSeeded;
+
+    /**
+     * @param lastPositionLoader returns the lowest ladder position held by a team, or 0 if there are no teams
+     */
+    LadderPositionAllocator(IntSupplier lastPositionLoader) {
+        this.lastPositionLoader = lastPositionLoader;
+        this.isSeeded = false;
+    }
+
+    /**
+     * Reserves count contiguous positions at the bottom of the ladder.
+     * @return the first of the reserved positions
+     */
+    synchronized int allocate(int count) {
+        if (!isSeeded) {
+            nextPosition = lastPositionLoader.getAsInt() + 1;
+            isSeeded = true;
+        }
+
+        int firstPosition = nextPosition;
+        nextPosition += count;
+        return firstPosition;
+    }
+
+    /**
+     * Gives back positions from allocate() that were not saved. They are only handed out again if no positions
+     * have been allocated since, so that a position is never given to two teams.
+     */
+    synchronized void release(int firstPosition, int count) {
+        if (isSeeded && firstPosition + count == nextPosition) {
+            nextPosition = firstPosition;
+        }
+    }
+
+    /**
+     * Has the counter seeded from the database again, after the ladder has been renumbered.
+     */
+    synchronized void reset() {
+        isSeeded = false;
+    }
+
+}
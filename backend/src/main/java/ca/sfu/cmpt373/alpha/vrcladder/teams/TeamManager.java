@@ -4,6 +4,7 @@ import ca.sfu.cmpt373.alpha.vrcladder.exceptions.DuplicateTeamMemberException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ExistingTeamException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MultiplePlayTimeException;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.DatabaseManager;
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceCard;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
@@ -11,8 +12,11 @@ import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.CriterionConstants;
+import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.IdType;
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.criterion.Criterion;
@@ -22,7 +26,14 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.exception.ConstraintViolationException;
 
 import javax.persistence.EntityNotFoundException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides an interface to perform create, read, update, and delete (CRUD) operations on,
@@ -31,13 +42,57 @@ import java.util.List;
 public class TeamManager extends DatabaseManager<Team> {
 
     private static final Class TEAM_CLASS_TYPE = Team.class;
-    private static final Integer FIRST_POSITION = 1;
+    private static final int NO_POSITION = 0;
 
     private static final Order ASCENDING_POSITION_ORDER = Order.asc(CriterionConstants.TEAM_LADDER_POSITION_PROPERTY);
 
     private static final String ERROR_NOT_ALL_TEAMS = "All teams must be present in order to update ladder positions";
+
+    private static final String PARAM_PLAY_TIME = "playTime";
+    private static final String PARAM_ATTENDANCE_STATUS = "attendanceStatus";
+    private static final String QUERY_RESET_ATTENDANCE = "update AttendanceCard"
+            + " set preferredPlayTime = :" + PARAM_PLAY_TIME + ", attendanceStatus = :" + PARAM_ATTENDANCE_STATUS;
+    private static final String QUERY_LADDER_POSITIONS = "select team.id, team.ladderPosition from Team team";
+    private static final String QUERY_TEAM_SUMMARIES = "select new " + TeamSummary.class.getName()
+            + "(team.id.id, team.ladderPosition.ladderPosition,"
+            + " attendanceCard.preferredPlayTime, attendanceCard.attendanceStatus,"
+            + " firstUser.userId.id, firstUser.firstName, firstUser.middleName, firstUser.lastName,"
+            + " secondUser.userId.id, secondUser.firstName, secondUser.middleName, secondUser.lastName)"
+            + " from Team team"
+            + " join team.attendanceCard attendanceCard"
+            + " join team.firstPlayer firstUser"
+            + " join team.secondPlayer secondUser";
+    private static final String PARAM_PLAY_TIMES = "playTimes";
+    private static final String QUERY_ACTIVE_PLAYER_TEAMS = "select team.id, team.firstPlayer.userId, team.secondPlayer.userId"
+            + " from Team team"
+            + " where team.attendanceCard.preferredPlayTime in (:" + PARAM_PLAY_TIMES + ")";
+    private static final String PARAM_TEAM_ID = "teamId";
+    private static final String QUERY_TEAM_PLAY_TIME = "select team.attendanceCard.preferredPlayTime from Team team"
+            + " where team.id = :" + PARAM_TEAM_ID;
+    private static final String PARAM_AFTER_LADDER_POSITION = "afterLadderPosition";
+    private static final String PARAM_PLAYER_IDS = "playerIds";
+    private static final String QUERY_PLAYER_ID_PAIRS = "select team.firstPlayer.userId, team.secondPlayer.userId from Team team"
+            + " where team.firstPlayer.userId in (:" + PARAM_PLAYER_IDS + ")"
+            + " or team.secondPlayer.userId in (:" + PARAM_PLAYER_IDS + ")";
+    private static final String CONDITION_PLAY_TIME = "attendanceCard.preferredPlayTime = :" + PARAM_PLAY_TIME;
+    private static final String CONDITION_ATTENDANCE_STATUS = "attendanceCard.attendanceStatus = :" + PARAM_ATTENDANCE_STATUS;
+    private static final String CONDITION_AFTER_LADDER_POSITION = "team.ladderPosition.ladderPosition > :" + PARAM_AFTER_LADDER_POSITION;
+    private static final String ORDER_BY_LADDER_POSITION = " order by team.ladderPosition.ladderPosition";
+
+    private static final String SQL_SET_LADDER_POSITION = "UPDATE " + PersistenceConstants.TABLE_TEAM
+            + " SET " + PersistenceConstants.COLUMN_LADDER_POSITION + " = ?"
+            + " WHERE " + PersistenceConstants.COLUMN_ID + " = ?";
+    private static final String SQL_RESTORE_LADDER_POSITIONS = "UPDATE " + PersistenceConstants.TABLE_TEAM
+            + " SET " + PersistenceConstants.COLUMN_LADDER_POSITION + " = -" + PersistenceConstants.COLUMN_LADDER_POSITION
+            + " WHERE " + PersistenceConstants.COLUMN_LADDER_POSITION + " < 0";
+
+    private final LadderPositionAllocator ladderPositionAllocator;
+    private final ActiveTeamIndex activeTeamIndex;
+
     public TeamManager(SessionManager sessionManager) {
         super(TEAM_CLASS_TYPE, sessionManager);
+        ladderPositionAllocator = new LadderPositionAllocator(this::findLastLadderPosition);
+        activeTeamIndex = new ActiveTeamIndex(this::findActivePlayerTeams, this::isActiveTeam);
     }
 
     public Team create(User firstPlayer, User secondPlayer) {
@@ -49,16 +104,7 @@ public class TeamManager extends DatabaseManager<Team> {
             throw new DuplicateTeamMemberException();
         }
 
-        LadderPosition newLadderPosition = generateNewLadderPosition();
-        Team newTeam = new Team(firstPlayer, secondPlayer, newLadderPosition);
-
-        try {
-            create(newTeam);
-        } catch (ConstraintViolationException exception) {
-            throw new ExistingTeamException();
-        }
-
-        return newTeam;
+        return createAtBottom(firstPlayer, secondPlayer);
     }
 
     public Team create(UserId firstPlayerId, UserId secondPlayerId) {
@@ -79,21 +125,130 @@ public class TeamManager extends DatabaseManager<Team> {
             throw new DuplicateTeamMemberException();
         }
 
-        LadderPosition newLadderPosition = generateNewLadderPosition();
-        Team newTeam = new Team(firstPlayer, secondPlayer, newLadderPosition);
+        return createAtBottom(firstPlayer, secondPlayer);
+    }
+
+    private Team createAtBottom(User firstPlayer, User secondPlayer) {
+        int newLadderPosition = ladderPositionAllocator.allocate(1);
+        Team newTeam = new Team(firstPlayer, secondPlayer, new LadderPosition(newLadderPosition));
 
         try {
             create(newTeam);
         } catch (ConstraintViolationException exception) {
+            ladderPositionAllocator.release(newLadderPosition, 1);
             throw new ExistingTeamException();
+        } catch (RuntimeException exception) {
+            ladderPositionAllocator.release(newLadderPosition, 1);
+            throw exception;
         }
+        releaseLadderPositionsOnRollback(newLadderPosition, 1);
 
         return newTeam;
     }
 
+    /**
+     * Saves the teams, along with those of their players that are not in the database yet, in a single transaction,
+     * so the inserts are sent to the database in JDBC batches instead of one transaction per entity.
+     * Unlike create(), the teams are not checked for duplicates, and must already have their ladder positions.
+     * Nothing is saved if any of the inserts fail.
+     */
+    public List<Team> createAll(List<User> newPlayers, List<Team> teams) {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            for (User player : newPlayers) {
+                session.save(player);
+            }
+            for (Team team : teams) {
+                session.save(team);
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+
+        if (!teams.isEmpty()) {
+            int firstLadderPosition = teams.stream()
+                    .mapToInt(team -> team.getLadderPosition().getValue())
+                    .min()
+                    .getAsInt();
+            releaseLadderPositionsOnRollback(firstLadderPosition, teams.size());
+        }
+
+        return teams;
+    }
+
+    /**
+     * @return the ids of the first and second player of every team that has any of the given players,
+     * fetched in a single query
+     */
+    public List<UserId[]> getPlayerIdPairs(Collection<UserId> playerIds) {
+        List<UserId[]> playerIdPairs = new ArrayList<>();
+        if (playerIds.isEmpty()) {
+            return playerIdPairs;
+        }
+
+        Session session = sessionManager.getSession();
+        List<Object[]> rows = session.createQuery(QUERY_PLAYER_ID_PAIRS)
+                .setParameterList(PARAM_PLAYER_IDS, playerIds)
+                .list();
+        session.close();
+
+        for (Object[] row : rows) {
+            playerIdPairs.add(new UserId[]{(UserId) row[0], (UserId) row[1]});
+        }
+        return playerIdPairs;
+    }
+
+    /**
+     * Reserves count contiguous positions at the bottom of the ladder, for teams saved with createAll().
+     * Positions that don't end up being saved should be given back with releaseLadderPositions().
+     * @return the first of the reserved positions
+     */
+    public int reserveLadderPositions(int count) {
+        return ladderPositionAllocator.allocate(count);
+    }
+
+    /**
+     * Gives back positions from reserveLadderPositions() that were not saved
+     */
+    public void releaseLadderPositions(int firstPosition, int count) {
+        ladderPositionAllocator.release(firstPosition, count);
+    }
+
+    /**
+     * Gives back positions that were saved if the unit of work they were saved in is rolled back afterwards
+     */
+    private void releaseLadderPositionsOnRollback(int firstPosition, int count) {
+        sessionManager.afterCompletion(isCommitted -> {
+            if (!isCommitted) {
+                ladderPositionAllocator.release(firstPosition, count);
+            }
+        });
+    }
+
+    /**
+     * Has the ladder position counter seeded from the database again once the renumbered ladder has been committed
+     */
+    private void resetLadderPositionsOnCommit() {
+        sessionManager.afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                ladderPositionAllocator.reset();
+            }
+        });
+    }
+
     @Override
     public Team deleteById(IdType id) {
         Team team = super.deleteById(id);
+        sessionManager.afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                activeTeamIndex.remove(team);
+            }
+        });
 
         //update ladder positions to fill in the missing hole caused by removing a team
         List<Team> teams = getAll();
@@ -103,28 +258,118 @@ public class TeamManager extends DatabaseManager<Team> {
 
     /**
      * @return A List of Team's stored in the database in ascending LadderPosition order.
+     * The whole ladder, including each team's players and attendance, is loaded with a single statement.
      */
     @Override
     public List<Team> getAll() {
         Session session = sessionManager.getSession();
         List<Team> teams = session.createCriteria(Team.class)
+                .setFetchMode(CriterionConstants.TEAM_FIRST_PLAYER_PROPERTY, FetchMode.JOIN)
+                .setFetchMode(CriterionConstants.TEAM_SECOND_PLAYER_PROPERTY, FetchMode.JOIN)
+                .setFetchMode(CriterionConstants.TEAM_ATTENDANCE_CARD_PROPERTY, FetchMode.JOIN)
                 .addOrder(ASCENDING_POSITION_ORDER)
+                .setCacheable(true)
+                .setCacheRegion(PersistenceConstants.CACHE_REGION_LADDER)
+                .list();
+        session.close();
+
+        return teams;
+    }
+
+    /**
+     * @return A summary of each team in ascending LadderPosition order, selecting only the columns shown in
+     * the ladder, without loading any Team, AttendanceCard, or User entities.
+     */
+    public List<TeamSummary> getAllSummaries() {
+        Session session = sessionManager.getSession();
+        List<TeamSummary> teams = session.createQuery(QUERY_TEAM_SUMMARIES + ORDER_BY_LADDER_POSITION)
+                .setReadOnly(true)
+                .setCacheable(true)
+                .setCacheRegion(PersistenceConstants.CACHE_REGION_LADDER)
                 .list();
         session.close();
 
         return teams;
     }
 
+    /**
+     * Fetches one page of team summaries in ascending LadderPosition order, letting the database do the filtering
+     * and paging.
+     * @param playTime only teams that want to play at this time are returned, or teams with any play time if null
+     * @param attendanceStatus only teams with this status are returned, or teams with any status if null
+     * @param afterLadderPosition the page starts with the first team ranked below this position, or at the top of
+     *                            the ladder if null
+     * @param pageSize the most teams to return
+     */
+    public List<TeamSummary> getSummaries(PlayTime playTime, AttendanceStatus attendanceStatus,
+                                          Integer afterLadderPosition, int pageSize) {
+        List<String> conditions = new ArrayList<>();
+        if (playTime != null) {
+            conditions.add(CONDITION_PLAY_TIME);
+        }
+        if (attendanceStatus != null) {
+            conditions.add(CONDITION_ATTENDANCE_STATUS);
+        }
+        if (afterLadderPosition != null) {
+            conditions.add(CONDITION_AFTER_LADDER_POSITION);
+        }
+
+        Session session = sessionManager.getSession();
+        Query query = session.createQuery(QUERY_TEAM_SUMMARIES + buildWhereClause(conditions) + ORDER_BY_LADDER_POSITION);
+        if (playTime != null) {
+            query.setParameter(PARAM_PLAY_TIME, playTime);
+        }
+        if (attendanceStatus != null) {
+            query.setParameter(PARAM_ATTENDANCE_STATUS, attendanceStatus);
+        }
+        if (afterLadderPosition != null) {
+            query.setParameter(PARAM_AFTER_LADDER_POSITION, afterLadderPosition);
+        }
+        List<TeamSummary> teams = query
+                .setMaxResults(pageSize)
+                .setReadOnly(true)
+                .list();
+        session.close();
+
+        return teams;
+    }
+
+    /**
+     * @throws MultiplePlayTimeException if playTime is playable and either player is already playing on another team
+     */
     public Team updateAttendancePlaytime(IdType teamId, PlayTime playTime) {
         Team team = getById(teamId);
+        AttendanceCard attendanceCard = team.getAttendanceCard();
 
-        if (playTime.isPlayable()) {
-            checkForActiveTeam(team);
+        if (!playTime.isPlayable()) {
+            attendanceCard.setPreferredPlayTime(playTime);
+            Team stoppedTeam = update(team);
+            sessionManager.afterCompletion(isCommitted -> {
+                if (isCommitted) {
+                    activeTeamIndex.remove(stoppedTeam);
+                }
+            });
+            return stoppedTeam;
         }
 
-        AttendanceCard attendanceCard = team.getAttendanceCard();
-        attendanceCard.setPreferredPlayTime(playTime);
-        team = update(team);
+        //the players are claimed before the play time is saved, and the team stays pending until the play time is
+        //committed, so that two of their teams can't both start playing
+        List<UserId> claimedPlayerIds = activeTeamIndex.claim(team);
+        GeneratedId claimingTeamId = team.getId();
+        try {
+            attendanceCard.setPreferredPlayTime(playTime);
+            team = update(team);
+        } catch (RuntimeException e) {
+            activeTeamIndex.release(claimingTeamId, claimedPlayerIds);
+            throw e;
+        }
+        sessionManager.afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                activeTeamIndex.confirm(claimingTeamId);
+            } else {
+                activeTeamIndex.release(claimingTeamId, claimedPlayerIds);
+            }
+        });
 
         return team;
     }
@@ -157,36 +402,6 @@ public class TeamManager extends DatabaseManager<Team> {
         return (!matchedTeams.isEmpty());
     }
 
-    private void checkForActiveTeam(Team team) {
-        User firstPlayer = team.getFirstPlayer();
-        Team activeTeam = findActiveTeam(firstPlayer);
-        if (activeTeam != null && !team.equals(activeTeam)) {
-            String userId = firstPlayer.getUserId().toString();
-            String teamId = activeTeam.getId().toString();
-            throw new MultiplePlayTimeException(userId, teamId);
-        }
-
-        User secondPlayer = team.getSecondPlayer();
-        activeTeam = findActiveTeam(secondPlayer);
-        if (activeTeam != null && !team.equals(activeTeam)) {
-            String userId = secondPlayer.getUserId().toString();
-            String teamId = activeTeam.getId().toString();
-            throw new MultiplePlayTimeException(userId, teamId);
-        }
-    }
-
-    private Team findActiveTeam(User player) {
-        List<Team> matchedTeams = getTeamsForUser(player);
-
-        for (Team team : matchedTeams) {
-            if (team.getAttendanceCard().getPreferredPlayTime().isPlayable()) {
-                return team;
-            }
-        }
-
-        return null;
-    }
-
     public List<Team> getTeamsForUser(User player) {
         Session session = sessionManager.getSession();
 
@@ -202,60 +417,223 @@ public class TeamManager extends DatabaseManager<Team> {
         return matchedTeams;
     }
 
-    private LadderPosition generateNewLadderPosition() {
+    private Map<UserId, GeneratedId> findActivePlayerTeams() {
+        List<PlayTime> playablePlayTimes = new ArrayList<>();
+        for (PlayTime playTime : PlayTime.values()) {
+            if (playTime.isPlayable()) {
+                playablePlayTimes.add(playTime);
+            }
+        }
+
+        Session session = sessionManager.getSession();
+        List<Object[]> rows = session.createQuery(QUERY_ACTIVE_PLAYER_TEAMS)
+                .setParameterList(PARAM_PLAY_TIMES, playablePlayTimes)
+                .list();
+        session.close();
+
+        Map<UserId, GeneratedId> activeTeamIds = new HashMap<>();
+        for (Object[] row : rows) {
+            GeneratedId teamId = (GeneratedId) row[0];
+            activeTeamIds.put((UserId) row[1], teamId);
+            activeTeamIds.put((UserId) row[2], teamId);
+        }
+        return activeTeamIds;
+    }
+
+    private boolean isActiveTeam(GeneratedId teamId) {
+        Session session = sessionManager.getSession();
+        PlayTime playTime = (PlayTime) session.createQuery(QUERY_TEAM_PLAY_TIME)
+                .setParameter(PARAM_TEAM_ID, teamId)
+                .uniqueResult();
+        session.close();
+
+        return playTime != null && playTime.isPlayable();
+    }
+
+    private int findLastLadderPosition() {
         Session session = sessionManager.getSession();
         Criteria lastPositionCriteria = session.createCriteria(Team.class)
             .setProjection(Projections.max(CriterionConstants.TEAM_LADDER_POSITION_PROPERTY));
         LadderPosition lastPosition = (LadderPosition) lastPositionCriteria.uniqueResult();
+        session.close();
 
         if (lastPosition == null) {
-            return new LadderPosition(FIRST_POSITION);
+            return NO_POSITION;
         } else {
-            int nextPositionCount = lastPosition.getValue() + 1;
-            return new LadderPosition(nextPositionCount);
+            return lastPosition.getValue();
         }
     }
 
     /**
-     * Erases every Team's ranking in the database, and replaces each team's ranking
-     * with their position in the list of teams
+     * Replaces each team's ranking with their position in the list of teams.
+     * Only the teams whose ranking changed are written to the database.
      * @param teams A list that contains every team in the database in the ranked order to be applied
      * @throws IllegalStateException if not every team in the database is passed in
      */
     public List<Team> updateLadderPositions(List<Team> teams) {
-        //TODO: add more verification that every team in the ladder is actually passed in
         Session session = sessionManager.getSession();
-        long numTeamsInLadder = (long) session.createCriteria(Team.class)
-                .setProjection(Projections.rowCount())
-                .uniqueResult();
-        if (teams.size() != numTeamsInLadder) {
-            throw new IllegalStateException(ERROR_NOT_ALL_TEAMS);
+        Transaction transaction = session.beginTransaction();
+        try {
+            writeLadderPositions(session, teams);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
         }
+        resetLadderPositionsOnCommit();
+
+        return teams;
+    }
 
-        //TODO: figure out a less-hacky way to do this!
-        //since ladderPositions have a unique constraint,
-        //we must overwrite all the values with dummy values
-        //to assure no teams ever have the same ladderPosition
+    /**
+     * Does the same as updateLadderPositions(), and then resets every team's attendance for the next week,
+     * all in one transaction
+     * @see #updateLadderPositions(List)
+     * @see #resetAllAttendance()
+     */
+    public List<Team> updateLadderPositionsAndResetAttendance(List<Team> teams) {
+        Session session = sessionManager.getSession();
         Transaction transaction = session.beginTransaction();
-        for (int i = 0; i < teams.size(); i++) {
-            int placeHolderLadderPosition = Integer.MAX_VALUE - i;
-            Team team = teams.get(i);
-            team.setLadderPosition(new LadderPosition(placeHolderLadderPosition));
-            session.update(team);
+        try {
+            writeLadderPositions(session, teams);
+            resetAllAttendance(session);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+        resetLadderPositionsOnCommit();
+        clearActiveTeamsOnCommit();
+
+        return teams;
+    }
+
+    /**
+     * Sets every team back to not attending and present, with a single update statement
+     * @return the number of attendance cards that were reset
+     */
+    public int resetAllAttendance() {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        int resetCount;
+        try {
+            resetCount = resetAllAttendance(session);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            //the index is loaded again rather than trusted, since it can't tell what the failed update changed
+            activeTeamIndex.invalidate();
+            throw e;
+        } finally {
+            session.close();
         }
-        transaction.commit();
+        clearActiveTeamsOnCommit();
 
-        transaction = session.beginTransaction();
+        return resetCount;
+    }
+
+    /**
+     * Empties the active team index once every team's attendance reset has been committed. If it is rolled back
+     * instead, the index is loaded from the database again, in case anything else it was told about was undone too.
+     */
+    private void clearActiveTeamsOnCommit() {
+        sessionManager.afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                activeTeamIndex.clear();
+            } else {
+                activeTeamIndex.invalidate();
+            }
+        });
+    }
+
+    private int resetAllAttendance(Session session) {
+        return session.createQuery(QUERY_RESET_ATTENDANCE)
+                .setParameter(PARAM_PLAY_TIME, PlayTime.NONE)
+                .setParameter(PARAM_ATTENDANCE_STATUS, AttendanceStatus.PRESENT)
+                .executeUpdate();
+    }
+
+    private Map<GeneratedId, Integer> getLadderPositions(Session session) {
+        List<Object[]> rows = session.createQuery(QUERY_LADDER_POSITIONS).list();
+
+        Map<GeneratedId, Integer> ladderPositions = new HashMap<>();
+        for (Object[] row : rows) {
+            LadderPosition ladderPosition = (LadderPosition) row[1];
+            ladderPositions.put((GeneratedId) row[0], ladderPosition.getValue());
+        }
+        return ladderPositions;
+    }
+
+    private void checkAllTeamsPresent(List<Team> teams, Map<GeneratedId, Integer> ladderPositions) {
+        if (teams.size() != ladderPositions.size()) {
+            throw new IllegalStateException(ERROR_NOT_ALL_TEAMS);
+        }
+
+        Set<GeneratedId> teamIds = new HashSet<>();
+        for (Team team : teams) {
+            boolean isNewTeamId = teamIds.add(team.getId());
+            if (!isNewTeamId || !ladderPositions.containsKey(team.getId())) {
+                throw new IllegalStateException(ERROR_NOT_ALL_TEAMS);
+            }
+        }
+    }
+
+    /**
+     * Compares the new order against the positions stored in the database, and only updates the teams that moved.
+     * Since ladderPositions have a unique constraint, the moved teams are first given the negative of their new
+     * position, which can't be held by any other team, and then all flipped back with a single statement.
+     */
+    private void writeLadderPositions(Session session, List<Team> teams) {
+        Map<GeneratedId, Integer> currentLadderPositions = getLadderPositions(session);
+        checkAllTeamsPresent(teams, currentLadderPositions);
+
+        List<Team> movedTeams = new ArrayList<>();
         for (int i = 0; i < teams.size(); i++) {
-            int newTeamLadderPosition = i + 1;
             Team team = teams.get(i);
-            team.setLadderPosition(new LadderPosition(newTeamLadderPosition));
-            session.update(team);
+            LadderPosition newLadderPosition = new LadderPosition(i + 1);
+            team.setLadderPosition(newLadderPosition);
+            if (!newLadderPosition.getValue().equals(currentLadderPositions.get(team.getId()))) {
+                movedTeams.add(team);
+            }
         }
-        transaction.commit();
 
-        session.close();
-        return teams;
+        if (movedTeams.isEmpty()) {
+            return;
+        }
+
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SQL_SET_LADDER_POSITION)) {
+                for (int i = 0; i < movedTeams.size(); i++) {
+                    Team team = movedTeams.get(i);
+                    statement.setInt(1, -team.getLadderPosition().getValue());
+                    statement.setString(2, team.getId().getValue());
+                    statement.addBatch();
+                    if ((i + 1) % SessionManager.JDBC_BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
+
+        //when the teams were loaded by this session (as they are within a request's unit of work), Hibernate would
+        //otherwise write their new positions a second time on flush. Toggling read-only retakes their snapshots.
+        for (Team team : movedTeams) {
+            if (session.contains(team)) {
+                session.setReadOnly(team, true);
+                session.setReadOnly(team, false);
+            }
+        }
+
+        //the batch above bypasses Hibernate, so this statement is synchronized with Team to have Hibernate drop
+        //the cached teams and ladder query once the transaction completes
+        session.createSQLQuery(SQL_RESTORE_LADDER_POSITIONS)
+                .addSynchronizedEntityClass(Team.class)
+                .executeUpdate();
     }
 
 }
@@ -0,0 +1,58 @@
+package ca.sfu.cmpt373.alpha.vrcladder.teams;
+
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
+import ca.sfu.cmpt373.alpha.vrcladder.users.PlayerSummary;
+
+/**
+ * A read-only view of a team on the ladder, holding its position, attendance, and the names of its players.
+ * It is built directly from a single row of a query, so none of the Team, AttendanceCard or User entities
+ * have to be loaded.
+ */
+public class TeamSummary {
+
+    private final String teamId;
+    private final int ladderPosition;
+    private final PlayTime playTime;
+    private final AttendanceStatus attendanceStatus;
+    private final PlayerSummary firstPlayer;
+    private final PlayerSummary secondPlayer;
+
+    public TeamSummary(String teamId, Integer ladderPosition, PlayTime playTime, AttendanceStatus attendanceStatus,
+        String firstPlayerId, String firstPlayerFirstName, String firstPlayerMiddleName, String firstPlayerLastName,
+        String secondPlayerId, String secondPlayerFirstName, String secondPlayerMiddleName, String secondPlayerLastName) {
+        this.teamId = teamId;
+        this.ladderPosition = ladderPosition;
+        this.playTime = playTime;
+        this.attendanceStatus = attendanceStatus;
+        this.firstPlayer = new PlayerSummary(firstPlayerId, firstPlayerFirstName, firstPlayerMiddleName,
+            firstPlayerLastName);
+        this.secondPlayer = new PlayerSummary(secondPlayerId, secondPlayerFirstName, secondPlayerMiddleName,
+            secondPlayerLastName);
+    }
+
+    public String getTeamId() {
+        return teamId;
+    }
+
+    public int getLadderPosition() {
+        return ladderPosition;
+    }
+
+    public PlayTime getPlayTime() {
+        return playTime;
+    }
+
+    public AttendanceStatus getAttendanceStatus() {
+        return attendanceStatus;
+    }
+
+    public PlayerSummary getFirstPlayer() {
+        return firstPlayer;
+    }
+
+    public PlayerSummary getSecondPlayer() {
+        return secondPlayer;
+    }
+
+}
@@ -0,0 +1,25 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users;
+
+/**
+ * A read-only view of a player that only holds what is shown in player lists.
+ * It is built directly from query results, so no User entity has to be loaded.
+ */
+public class PlayerSummary {
+
+    private final String userId;
+    private final String displayName;
+
+    public PlayerSummary(String userId, String firstName, String middleName, String lastName) {
+        this.userId = userId;
+        this.displayName = User.buildDisplayName(firstName, middleName, lastName);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+}
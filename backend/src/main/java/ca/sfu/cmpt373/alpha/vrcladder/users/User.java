@@ -7,7 +7,10 @@ import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.EmailAddress;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.PhoneNumber;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.EmbeddedId;
@@ -17,6 +20,8 @@ import javax.persistence.Enumerated;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = PersistenceConstants.TABLE_USER)
 public class User {
 
@@ -41,6 +46,9 @@ public class User {
     @Column(name = PersistenceConstants.COLUMN_FAILED_ATTEMPTS, nullable = false)
     private int attempts;
 
+    @Column(name = PersistenceConstants.COLUMN_TOKEN_VERSION, nullable = false)
+    private int tokenVersion;
+
     @Embedded
     private EmailAddress emailAddress;
 
@@ -75,7 +83,14 @@ public class User {
         return userRole;
     }
 
+    /**
+     * Changing the role of an existing user also changes their token version, since their authorization tokens
+     * carry the role they had when they logged in
+     */
     public void setUserRole(UserRole userRole) {
+        if (this.userRole != null && this.userRole != userRole) {
+            incrementTokenVersion();
+        }
         this.userRole = userRole;
     }
 
@@ -123,8 +138,15 @@ public class User {
     }
 
     public String getDisplayName() {
+        return buildDisplayName(firstName, middleName, lastName);
+    }
+
+    /**
+     * Builds a name in the form "First M. Last", or "First Last" if there is no middle name
+     */
+    public static String buildDisplayName(String firstName, String middleName, String lastName) {
         String constructedName = firstName + " ";
-        if (hasMiddleName()) {
+        if (!middleName.isEmpty()) {
             char middleInitial = middleName.charAt(0);
             constructedName = constructedName + middleInitial + DISPLAY_NAME_INITIAL_DOT;
         }
@@ -157,6 +179,18 @@ public class User {
         this.password = password;
     }
 
+    /**
+     * @return a number that is stamped on the user's authorization tokens, and changes when tokens issued
+     * before the change should no longer be trusted
+     */
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void incrementTokenVersion() {
+        tokenVersion++;
+    }
+
     public int getAttempts(){
         return attempts;
     }
@@ -12,12 +12,16 @@ import ca.sfu.cmpt373.alpha.vrcladder.util.CriterionConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.util.IdType;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
+import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Restrictions;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Provides an interface to perform create, read, update, and delete (CRUD) operations on
@@ -29,6 +33,26 @@ public class UserManager extends DatabaseManager<User> {
 
     private static final Class USER_CLASS_TYPE = User.class;
 
+    private static final String PARAM_USER_ROLE = "userRole";
+    private static final String QUERY_USER_SUMMARIES = "select new " + UserSummary.class.getName()
+            + "(user.userId.id, user.userRole, user.firstName, user.middleName, user.lastName,"
+            + " user.emailAddress.emailAddress, user.phoneNumber.phoneNumber)"
+            + " from User user";
+    private static final String QUERY_PLAYER_SUMMARIES = "select new " + PlayerSummary.class.getName()
+            + "(user.userId.id, user.firstName, user.middleName, user.lastName)"
+            + " from User user";
+    private static final String PARAM_AFTER_USER_ID = "afterUserId";
+    private static final String CONDITION_USER_ROLE = "user.userRole = :" + PARAM_USER_ROLE;
+    private static final String CONDITION_AFTER_USER_ID = "user.userId.id > :" + PARAM_AFTER_USER_ID;
+    private static final String ORDER_BY_USER_ID = " order by user.userId.id";
+    private static final String HQL_WHERE_PLAYER = " where " + CONDITION_USER_ROLE;
+    private static final String PARAM_USER_ID = "userId";
+    private static final String PARAM_ATTEMPTS = "attempts";
+    private static final String QUERY_ADD_ATTEMPTS = "update User user set user.attempts = user.attempts + :"
+            + PARAM_ATTEMPTS + " where user.userId = :" + PARAM_USER_ID;
+    private static final String QUERY_RESET_ATTEMPTS = "update User user set user.attempts = 0"
+            + " where user.userId = :" + PARAM_USER_ID + " and user.attempts <> 0";
+
     public UserManager(SessionManager sessionManager) {
         super(USER_CLASS_TYPE, sessionManager);
     }
@@ -79,6 +103,48 @@ public class UserManager extends DatabaseManager<User> {
         return update(user);
     }
 
+    /**
+     * Adds each user's number of failed logins to their attempts in one transaction, with a single update per user
+     * and without loading the users first. Users that no longer exist are skipped.
+     */
+    public void addAttempts(Map<UserId, Integer> failedAttempts) {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            Query query = session.createQuery(QUERY_ADD_ATTEMPTS);
+            for (Map.Entry<UserId, Integer> userAttempts : failedAttempts.entrySet()) {
+                query.setParameter(PARAM_USER_ID, userAttempts.getKey())
+                        .setParameter(PARAM_ATTEMPTS, userAttempts.getValue())
+                        .executeUpdate();
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Clears the user's failed logins with a single update, which leaves the row alone if there were none
+     */
+    public void resetAttempts(UserId userId) {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            session.createQuery(QUERY_RESET_ATTEMPTS)
+                    .setParameter(PARAM_USER_ID, userId)
+                    .executeUpdate();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
     @Override
     public User delete(User user) {
         if (user.getUserRole() == UserRole.PLAYER) {
@@ -118,6 +184,98 @@ public class UserManager extends DatabaseManager<User> {
         return players;
     }
 
+    /**
+     * Fetches the users with the given ids in a single query. Ids that don't belong to a user are ignored.
+     */
+    public List<User> getAllById(Collection<UserId> userIds) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Session session = sessionManager.getSession();
+        List<User> users = session.createCriteria(User.class)
+            .add(Restrictions.in(CriterionConstants.USER_ID, userIds))
+            .list();
+        session.close();
+
+        return users;
+    }
+
+    /**
+     * Selects only the columns shown in user lists, without loading any User entities
+     */
+    public List<UserSummary> getAllSummaries() {
+        Session session = sessionManager.getSession();
+        List<UserSummary> users = session.createQuery(QUERY_USER_SUMMARIES)
+                .setReadOnly(true)
+                .setCacheable(true)
+                .list();
+        session.close();
+
+        return users;
+    }
+
+    /**
+     * Selects only the id and name of each player, without loading any User entities
+     */
+    public List<PlayerSummary> getAllPlayerSummaries() {
+        Session session = sessionManager.getSession();
+        List<PlayerSummary> players = session.createQuery(QUERY_PLAYER_SUMMARIES + HQL_WHERE_PLAYER)
+                .setParameter(PARAM_USER_ROLE, UserRole.PLAYER)
+                .setReadOnly(true)
+                .setCacheable(true)
+                .list();
+        session.close();
+
+        return players;
+    }
+
+    /**
+     * Fetches one page of user summaries in ascending UserId order, letting the database do the filtering
+     * and paging.
+     * @param userRole only users with this role are returned, or users with any role if null
+     * @param afterUserId the page starts with the first user after this one, or at the first user if null
+     * @param pageSize the most users to return
+     */
+    public List<UserSummary> getSummaries(UserRole userRole, UserId afterUserId, int pageSize) {
+        return getSummaryPage(QUERY_USER_SUMMARIES, userRole, afterUserId, pageSize);
+    }
+
+    /**
+     * Fetches one page of player summaries in ascending UserId order
+     * @param afterUserId the page starts with the first player after this one, or at the first player if null
+     * @param pageSize the most players to return
+     */
+    public List<PlayerSummary> getPlayerSummaries(UserId afterUserId, int pageSize) {
+        return getSummaryPage(QUERY_PLAYER_SUMMARIES, UserRole.PLAYER, afterUserId, pageSize);
+    }
+
+    private <S> List<S> getSummaryPage(String summaryQuery, UserRole userRole, UserId afterUserId, int pageSize) {
+        List<String> conditions = new ArrayList<>();
+        if (userRole != null) {
+            conditions.add(CONDITION_USER_ROLE);
+        }
+        if (afterUserId != null) {
+            conditions.add(CONDITION_AFTER_USER_ID);
+        }
+
+        Session session = sessionManager.getSession();
+        Query query = session.createQuery(summaryQuery + buildWhereClause(conditions) + ORDER_BY_USER_ID);
+        if (userRole != null) {
+            query.setParameter(PARAM_USER_ROLE, userRole);
+        }
+        if (afterUserId != null) {
+            query.setParameter(PARAM_AFTER_USER_ID, afterUserId.getValue());
+        }
+        List<S> summaries = query
+                .setMaxResults(pageSize)
+                .setReadOnly(true)
+                .list();
+        session.close();
+
+        return summaries;
+    }
+
     private List<Team> getTeamsOfPlayer(UserId playerId) {
         Session session = sessionManager.getSession();
 
@@ -0,0 +1,46 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
+
+/**
+ * A read-only view of a user with only the details shown in user lists. Unlike a User entity,
+ * it never holds the password hash or login attempts.
+ */
+public class UserSummary {
+
+    private final String userId;
+    private final UserRole userRole;
+    private final String displayName;
+    private final String emailAddress;
+    private final String phoneNumber;
+
+    public UserSummary(String userId, UserRole userRole, String firstName, String middleName, String lastName,
+        String emailAddress, String phoneNumber) {
+        this.userId = userId;
+        this.userRole = userRole;
+        this.displayName = User.buildDisplayName(firstName, middleName, lastName);
+        this.emailAddress = emailAddress;
+        this.phoneNumber = phoneNumber;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public UserRole getUserRole() {
+        return userRole;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getEmailAddress() {
+        return emailAddress;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+}
@@ -0,0 +1,76 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ServerBusyException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs password hashing on a fixed number of worker threads, so that a burst of logins can only keep that many
+ * threads busy with the deliberately slow hashing, instead of every request thread.
+ * Work that arrives while every worker is busy waits in a bounded queue, and is refused with a ServerBusyException
+ * once the queue is full.
+ */
+class HashingExecutor {
+
+    private static final String THREAD_NAME = "password-hashing";
+    private static final String ERROR_BUSY = "The server is handling too many logins. Please try again shortly.";
+    private static final String ERROR_INTERRUPTED = "Interrupted while waiting for a password to be hashed";
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param queueSize the most tasks that can wait for a worker, or 0 to refuse tasks whenever every worker is busy
+     */
+    HashingExecutor(int threadCount, int queueSize) {
+        BlockingQueue<Runnable> queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the task on one of the workers, and waits for its result
+     * @throws ServerBusyException if every worker is busy and the queue is full
+     */
+    <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServerBusyException(ERROR_BUSY, RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ERROR_INTERRUPTED, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+}
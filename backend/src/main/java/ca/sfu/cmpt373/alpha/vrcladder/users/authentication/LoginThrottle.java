@@ -0,0 +1,269 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TooManyAttemptsException;
+import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits how many logins can be attempted for one user, and from one address, within a sliding window of time.
+ * Attempts over either limit are refused before the user is loaded or the password is hashed.
+ *
+ * The recent attempts are kept in memory, split across a fixed number of stripes that each have their own lock, so
+ * logins for different users or addresses rarely wait on each other. Failed logins are also added up in memory and
+ * written to the users' attempts every few seconds, with one update per user, instead of once per failure.
+ *
+ * This assumes the application is the only one handling logins.
+ */
+public class LoginThrottle {
+
+    private static final Logger LOGGER = Logger.getLogger(LoginThrottle.class.getName());
+
+    public static final String ERROR_TOO_MANY_ATTEMPTS = "Too many login attempts. Please try again later.";
+
+    private static final int STRIPE_COUNT = 64;
+    private static final String FLUSH_THREAD_NAME = "login-throttle";
+
+    private final long windowMillis;
+    private final int userLimit;
+    private final int addressLimit;
+    private final LongSupplier clock;
+    private final Consumer<Map<UserId, Integer>> failedAttemptsWriter;
+    private final Stripe[] stripes;
+    private final ConcurrentHashMap<UserId, Integer> pendingFailedAttempts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor;
+
+    public LoginThrottle(UserManager userManager, ConfigurationManager configurationManager) {
+        this(TimeUnit.SECONDS.toMillis(configurationManager.getLoginAttemptWindow()),
+            configurationManager.getLoginAttemptUserLimit(), configurationManager.getLoginAttemptAddressLimit(),
+            TimeUnit.SECONDS.toMillis(configurationManager.getLoginAttemptFlushInterval()), System::currentTimeMillis,
+            userManager::addAttempts);
+    }
+
+    /**
+     * @param flushIntervalMillis how often the failed logins are written, or 0 to only write them when flush() is
+     *                            called
+     * @param clock returns the current time in milliseconds
+     * @param failedAttemptsWriter adds the given number of failed logins to each user's attempts
+     */
+    LoginThrottle(long windowMillis, int userLimit, int addressLimit, long flushIntervalMillis, LongSupplier clock,
+        Consumer<Map<UserId, Integer>> failedAttemptsWriter) {
+        this.windowMillis = windowMillis;
+        this.userLimit = userLimit;
+        this.addressLimit = addressLimit;
+        this.clock = clock;
+        this.failedAttemptsWriter = failedAttemptsWriter;
+
+        stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        if (flushIntervalMillis > 0) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, FLUSH_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushAndPrune, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        } else {
+            flushExecutor = null;
+        }
+    }
+
+    /**
+     * Counts a login attempt for the user from the address.
+     * Either recordSuccess() or recordFailure() should be called once the password has been checked, or release() if
+     * it couldn't be checked.
+     * @throws TooManyAttemptsException if the user or the address has reached its limit
+     */
+    public void acquire(UserId userId, String address) {
+        long now = clock.getAsLong();
+        acquire(userId, userLimit, now);
+        try {
+            acquire(new Address(address), addressLimit, now);
+        } catch (TooManyAttemptsException ex) {
+            release(userId);
+            throw ex;
+        }
+    }
+
+    /**
+     * Called once a login acquired for the user has succeeded. The user's earlier attempts are forgiven, and this
+     * login doesn't count against the address.
+     */
+    public void recordSuccess(UserId userId, String address) {
+        Stripe userStripe = getStripe(userId);
+        synchronized (userStripe) {
+            userStripe.attemptTimes.remove(userId);
+        }
+        release(new Address(address));
+        pendingFailedAttempts.remove(userId);
+    }
+
+    /**
+     * Called when a login acquired for the user couldn't be checked, such as when the server is too busy to hash the
+     * password, so that the attempt doesn't count against the user or the address
+     */
+    public void release(UserId userId, String address) {
+        release(userId);
+        release(new Address(address));
+    }
+
+    /**
+     * Called once a login acquired for the user has failed, so that it is added to the user's attempts
+     */
+    public void recordFailure(UserId userId) {
+        pendingFailedAttempts.merge(userId, 1, Integer::sum);
+    }
+
+    /**
+     * @return the number of failed logins for the user that haven't been written to the user's attempts yet
+     */
+    public int getUnsavedFailures(UserId userId) {
+        return pendingFailedAttempts.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Writes the failed logins recorded since the last flush. If they can't be written they are kept for the next one.
+     */
+    public void flush() {
+        Map<UserId, Integer> failedAttempts = new HashMap<>();
+        for (UserId userId : pendingFailedAttempts.keySet()) {
+            Integer count = pendingFailedAttempts.remove(userId);
+            if (count != null) {
+                failedAttempts.put(userId, count);
+            }
+        }
+
+        if (failedAttempts.isEmpty()) {
+            return;
+        }
+
+        try {
+            failedAttemptsWriter.accept(failedAttempts);
+        } catch (RuntimeException ex) {
+            failedAttempts.forEach((userId, count) -> pendingFailedAttempts.merge(userId, count, Integer::sum));
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes any failed logins that are still waiting and stops the periodic writes
+     */
+    public void shutDown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Drops the users and addresses that haven't attempted a login within the window, so that attempts spread over
+     * many user IDs or addresses aren't kept forever.
+     */
+    void prune() {
+        long windowStart = clock.getAsLong() - windowMillis;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Deque<Long>> attemptTimes = stripe.attemptTimes.values().iterator();
+                while (attemptTimes.hasNext()) {
+                    Deque<Long> times = attemptTimes.next();
+                    removeExpired(times, windowStart);
+                    if (times.isEmpty()) {
+                        attemptTimes.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private void flushAndPrune() {
+        //exceptions are caught so that one failed write doesn't cancel the schedule
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Could not save failed login attempts", ex);
+        }
+        prune();
+    }
+
+    private void acquire(Object key, int limit, long now) {
+        Stripe stripe = getStripe(key);
+        synchronized (stripe) {
+            Deque<Long> times = stripe.attemptTimes.computeIfAbsent(key, k -> new ArrayDeque<>());
+            removeExpired(times, now - windowMillis);
+            if (times.size() >= limit) {
+                long retryAfterMillis = times.peekFirst() + windowMillis - now;
+                throw new TooManyAttemptsException(ERROR_TOO_MANY_ATTEMPTS,
+                    (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999)));
+            }
+            times.addLast(now);
+        }
+    }
+
+    private void release(Object key) {
+        Stripe stripe = getStripe(key);
+        synchronized (stripe) {
+            Deque<Long> times = stripe.attemptTimes.get(key);
+            if (times != null) {
+                times.pollLast();
+                if (times.isEmpty()) {
+                    stripe.attemptTimes.remove(key);
+                }
+            }
+        }
+    }
+
+    private Stripe getStripe(Object key) {
+        return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+    }
+
+    private static void removeExpired(Deque<Long> times, long windowStart) {
+        while (!times.isEmpty() && times.peekFirst() <= windowStart) {
+            times.removeFirst();
+        }
+    }
+
+    private static class Stripe {
+        //the times of the attempts within the window, oldest first, for each user ID and address
+        private final Map<Object, Deque<Long>> attemptTimes = new HashMap<>();
+    }
+
+    /**
+     * Keeps addresses from being confused with user IDs when both are used as keys
+     */
+    private static class Address {
+        private final String address;
+
+        Address(String address) {
+            this.address = address;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Address && address.equals(((Address) o).address));
+        }
+
+        @Override
+        public int hashCode() {
+            return address.hashCode();
+        }
+    }
+
+}
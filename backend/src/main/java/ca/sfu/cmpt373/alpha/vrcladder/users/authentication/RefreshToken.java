@@ -0,0 +1,54 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+
+/**
+ * A long-lived token that can be traded for a new authorization token without the user's password, as described
+ * by the token's claims. Each refresh token has its own ID so that it can be revoked on its own.
+ */
+public class RefreshToken {
+
+    private final String tokenId;
+    private final UserId userId;
+    private final int tokenVersion;
+    private final long issuedAt;
+    private final long expirationTime;
+
+    /**
+     * @param issuedAt the time in milliseconds that the token was issued at, or 0 if the token doesn't say
+     */
+    public RefreshToken(String tokenId, UserId userId, int tokenVersion, long issuedAt, long expirationTime) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.issuedAt = issuedAt;
+        this.expirationTime = expirationTime;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public UserId getUserId() {
+        return userId;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * @return the time in milliseconds that the token was issued at, or 0 if the token doesn't say
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return the time in milliseconds that the token expires at
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+}
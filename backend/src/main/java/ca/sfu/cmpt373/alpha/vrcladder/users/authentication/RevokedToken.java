@@ -0,0 +1,45 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A refresh token that was revoked, or already traded for new tokens, before it expired. Revoked tokens are saved so
+ * that they stay refused after the application restarts, and can be deleted once they have expired.
+ */
+@Entity
+@Table(name = PersistenceConstants.TABLE_REVOKED_TOKEN)
+public class RevokedToken {
+
+    @Id
+    @Column(name = PersistenceConstants.COLUMN_ID, nullable = false)
+    private String tokenId;
+
+    @Column(name = PersistenceConstants.COLUMN_EXPIRATION_TIME, nullable = false)
+    private long expirationTime;
+
+    private RevokedToken() {
+        // Required by Hibernate.
+    }
+
+    public RevokedToken(RefreshToken refreshToken) {
+        this.tokenId = refreshToken.getTokenId();
+        this.expirationTime = refreshToken.getExpirationTime();
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return the time in milliseconds that the token expires at
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+}
@@ -0,0 +1,78 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.DatabaseManager;
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves the refresh tokens that have been revoked or used, so that the SecurityManager can be told about them again
+ * when the application restarts. Tokens that have expired are refused anyway, so they are deleted now and then.
+ */
+public class RevokedTokenManager extends DatabaseManager<RevokedToken> {
+
+    private static final String PARAM_NOW = "now";
+    private static final String QUERY_UNEXPIRED = "from RevokedToken revokedToken"
+            + " where revokedToken.expirationTime > :" + PARAM_NOW;
+    private static final String QUERY_DELETE_EXPIRED = "delete from RevokedToken revokedToken"
+            + " where revokedToken.expirationTime <= :" + PARAM_NOW;
+    private static final long DELETE_EXPIRED_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicLong nextDeleteExpiredTime = new AtomicLong();
+
+    public RevokedTokenManager(SessionManager sessionManager) {
+        super(RevokedToken.class, sessionManager);
+    }
+
+    /**
+     * Saves a refresh token that has been revoked. At most once an hour, the expired tokens are deleted as well.
+     */
+    public RevokedToken create(RefreshToken refreshToken) {
+        long now = System.currentTimeMillis();
+        long nextDeleteTime = nextDeleteExpiredTime.get();
+        if (now >= nextDeleteTime
+            && nextDeleteExpiredTime.compareAndSet(nextDeleteTime, now + DELETE_EXPIRED_INTERVAL_MILLIS)) {
+            deleteExpired();
+        }
+
+        return create(new RevokedToken(refreshToken));
+    }
+
+    /**
+     * @return the revoked tokens that haven't expired yet
+     */
+    public List<RevokedToken> getAllUnexpired() {
+        Session session = sessionManager.getSession();
+        List<RevokedToken> revokedTokens = session.createQuery(QUERY_UNEXPIRED)
+                .setParameter(PARAM_NOW, System.currentTimeMillis())
+                .list();
+        session.close();
+
+        return revokedTokens;
+    }
+
+    /**
+     * @return the number of expired tokens deleted
+     */
+    public int deleteExpired() {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            int deletedCount = session.createQuery(QUERY_DELETE_EXPIRED)
+                    .setParameter(PARAM_NOW, System.currentTimeMillis())
+                    .executeUpdate();
+            transaction.commit();
+            return deletedCount;
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+}
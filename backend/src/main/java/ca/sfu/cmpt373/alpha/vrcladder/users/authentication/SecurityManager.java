@@ -1,65 +1,158 @@
 package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
 
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ServerBusyException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TemplateNotFoundException;
 import ca.sfu.cmpt373.alpha.vrcladder.notifications.NotificationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.notifications.logic.NotificationType;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwt;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.crypto.MacProvider;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.credential.DefaultPasswordService;
 import org.apache.shiro.authc.credential.PasswordService;
 import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.crypto.hash.DefaultHashService;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class SecurityManager {
 
+    private static final Logger LOGGER = Logger.getLogger(SecurityManager.class.getName());
+
     public static final int HASH_WIDTH = 92;
     public static final String ERROR_INVALID_CREDENTIALS = "Invalid credentials (user ID or password).";
 
     private static final String ERROR_INVALID_TOKEN = "The provided authorization token is not valid";
     private static final String ERROR_EXPIRED_TOKEN = "The provided authorization token has expired.";
+    private static final String ERROR_REVOKED_TOKEN = "The provided authorization token has been revoked.";
+    private static final String ERROR_MISSING_SIGNATURE_KEY = "No key was configured for signing tokens. Set " +
+            "tokenSigningKey to a Base64 encoded key, such as the output of openssl rand -base64 32.";
+
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+    private static final String CLAIM_TOKEN_USE = "use";
+    private static final String TOKEN_USE_REFRESH = "refresh";
 
     private static final String HEADER_PROPERTY_TYPE = "typ";
     private static final String HEADER_PROPERTY_ALGORITHM = "alg";
 
     private static final String TOKEN_TYPE = "JWT";
     private static final int TTL_IN_SECONDS = 3600;
+    private static final int REFRESH_TTL_IN_SECONDS = 30 * 24 * 3600;
     private static final int MILLISECONDS_TO_SECONDS_MULTIPLIER = 1000;
     private static final int NUMBER_OF_ATTEMPTS_TO_NOTIFY_USER = 5;
+    private static final int MAX_CACHED_TOKENS = 10000;
+    private static final int DEFAULT_HASHING_QUEUE_SIZE = 100;
 
     private PasswordService passwordService;
     private SignatureAlgorithm signatureAlgorithm;
     private Key signatureKey;
+    private int authorizationTokenTtl;
+    private int refreshTokenTtl;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenRevocationList tokenRevocationList;
+    private HashingExecutor hashingExecutor;
 
     private static final NotificationManager notify = new NotificationManager();
 
+    /**
+     * Hashes passwords with Shiro's default number of iterations, on one worker thread per processor
+     */
     public SecurityManager(SignatureAlgorithm signatureAlgorithm, Key signatureKey) {
-        this.passwordService = new DefaultPasswordService();
+        this(signatureAlgorithm, signatureKey, DefaultPasswordService.DEFAULT_HASH_ITERATIONS,
+            Runtime.getRuntime().availableProcessors(), DEFAULT_HASHING_QUEUE_SIZE);
+    }
+
+    public SecurityManager(SignatureAlgorithm signatureAlgorithm, Key signatureKey,
+                           ConfigurationManager configurationManager) {
+        this(signatureAlgorithm, signatureKey, configurationManager.getPasswordHashIterations(),
+            configurationManager.getPasswordHashingThreadCount(), configurationManager.getPasswordHashingQueueSize());
+        this.authorizationTokenTtl = configurationManager.getAuthorizationTokenTtl();
+        this.refreshTokenTtl = configurationManager.getRefreshTokenTtl();
+    }
+
+    /**
+     * @param hashIterations the number of times new passwords are hashed. Passwords that are already stored keep
+     *                       being checked with the number of iterations they were hashed with.
+     * @param hashingThreadCount the number of passwords that can be hashed or checked at the same time
+     * @param hashingQueueSize the number of passwords that can wait to be hashed or checked before logins are
+     *                         refused with a ServerBusyException
+     */
+    public SecurityManager(SignatureAlgorithm signatureAlgorithm, Key signatureKey, int hashIterations,
+                           int hashingThreadCount, int hashingQueueSize) {
+        this.passwordService = createPasswordService(hashIterations);
         this.signatureAlgorithm = signatureAlgorithm;
         this.signatureKey = signatureKey;
+        this.authorizationTokenTtl = TTL_IN_SECONDS;
+        this.refreshTokenTtl = REFRESH_TTL_IN_SECONDS;
+        this.verifiedTokenCache = new VerifiedTokenCache(MAX_CACHED_TOKENS, System::currentTimeMillis);
+        this.tokenRevocationList = new TokenRevocationList(System::currentTimeMillis);
+        this.hashingExecutor = new HashingExecutor(hashingThreadCount, hashingQueueSize);
     }
 
+    /**
+     * Creates the key that tokens are signed with from its Base64 encoding, so that tokens stay valid when the
+     * application restarts.
+     * @param allowGeneratedKey whether a new key may be generated when none is given, in which case tokens are only
+     *                          valid until a restart. Only meant for debug builds.
+     * @throws IllegalStateException if no key is given and one can't be generated
+     */
+    public static Key createSignatureKey(SignatureAlgorithm signatureAlgorithm, String encodedKey,
+        boolean allowGeneratedKey) {
+        if (encodedKey == null || encodedKey.trim().isEmpty()) {
+            if (!allowGeneratedKey) {
+                throw new IllegalStateException(ERROR_MISSING_SIGNATURE_KEY);
+            }
+            return MacProvider.generateKey(signatureAlgorithm);
+        }
+
+        return new SecretKeySpec(Base64.getDecoder().decode(encodedKey.trim()), signatureAlgorithm.getJcaName());
+    }
+
+    public void shutDown() {
+        hashingExecutor.shutDown();
+    }
+
+    /**
+     * @throws AuthenticationException if the password doesn't match
+     * @throws ServerBusyException if too many passwords are already waiting to be checked
+     */
     public String login(User user, String plaintextPassword) {
+        return login(user, plaintextPassword, user.getAttempts());
+    }
+
+    /**
+     * Same as login(User, String), for when the user's failed logins haven't all been saved to the user yet
+     * @param failedAttempts the number of failed logins the user will have if this one fails
+     */
+    public String login(User user, String plaintextPassword, int failedAttempts) {
         Password password = user.getPassword();
 
         if (!doesPasswordMatch(plaintextPassword, password)) {
 
             try{
-                if(user.getAttempts() % NUMBER_OF_ATTEMPTS_TO_NOTIFY_USER == 0 && user.getAttempts() > 0){
+                if(failedAttempts % NUMBER_OF_ATTEMPTS_TO_NOTIFY_USER == 0 && failedAttempts > 0){
                     notify.notifyUser(user, NotificationType.FAILED_LOGIN);
                 }
             } catch (TemplateNotFoundException ex){
-                ex.printStackTrace();
+                LOGGER.log(Level.WARNING, "Could not notify the user of failed logins", ex);
             }
 
             throw new AuthenticationException(ERROR_INVALID_CREDENTIALS);
@@ -74,6 +167,24 @@ public class SecurityManager {
      * (User ID) is then returned if still valid.
      */
     public UserId parseToken(String authorizationToken) {
+        return parsePrincipal(authorizationToken).getUserId();
+    }
+
+    /**
+     * Validates the provided authorization token the same way as parseToken(), and returns the user ID, role and
+     * token version that it was issued with.
+     * Tokens that have been verified before are only checked for expiry and revocation, without verifying their
+     * signature again.
+     */
+    public UserPrincipal parsePrincipal(String authorizationToken) {
+        if (authorizationToken != null) {
+            UserPrincipal cachedPrincipal = verifiedTokenCache.get(authorizationToken);
+            if (cachedPrincipal != null) {
+                checkForRevocation(cachedPrincipal);
+                return cachedPrincipal;
+            }
+        }
+
         Jwt jsonWebToken;
         try {
             jsonWebToken = parseAuthorizationToken(authorizationToken);
@@ -84,19 +195,158 @@ public class SecurityManager {
         }
 
         Claims containedClaims = (Claims) jsonWebToken.getBody();
-        String subject = containedClaims.getSubject();
+        UserPrincipal principal = createPrincipal(containedClaims);
+        checkForRevocation(principal);
+
+        Date expirationDate = containedClaims.getExpiration();
+        if (expirationDate != null) {
+            verifiedTokenCache.put(authorizationToken, principal, expirationDate.getTime());
+        }
+
+        return principal;
+    }
+
+    /**
+     * Creates a refresh token for a user who has logged in, which can be traded for new authorization tokens with
+     * refreshAuthorizationToken() until it expires, without the password being checked again.
+     */
+    public String createRefreshToken(User user) {
+        Claims claims = new DefaultClaims();
+        claims.setId(UUID.randomUUID().toString());
+        claims.setSubject(user.getUserId().getValue());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        claims.put(CLAIM_TOKEN_USE, TOKEN_USE_REFRESH);
+        claims.setIssuedAt(new Date());
+        claims.setExpiration(createExpirationDate(refreshTokenTtl));
+
+        return Jwts.builder()
+            .setHeader(createHeader())
+            .setClaims(claims)
+            .signWith(signatureAlgorithm, signatureKey)
+            .compact();
+    }
+
+    /**
+     * Validates the signature and expiration time of a refresh token, and checks that it hasn't been revoked.
+     * @throws AuthorizationException if the token isn't a valid refresh token
+     */
+    public RefreshToken parseRefreshToken(String refreshToken) {
+        Jwt jsonWebToken;
+        try {
+            jsonWebToken = parseAuthorizationToken(refreshToken);
+        } catch (ExpiredJwtException ex) {
+            throw new AuthorizationException(ERROR_EXPIRED_TOKEN);
+        } catch (Exception ex) {
+            throw new AuthorizationException(ERROR_INVALID_TOKEN);
+        }
+
+        Claims claims = (Claims) jsonWebToken.getBody();
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (!TOKEN_USE_REFRESH.equals(claims.get(CLAIM_TOKEN_USE, String.class)) || claims.getId() == null
+            || claims.getSubject() == null || tokenVersion == null || claims.getExpiration() == null) {
+            throw new AuthorizationException(ERROR_INVALID_TOKEN);
+        }
+
+        RefreshToken parsedToken = new RefreshToken(claims.getId(), new UserId(claims.getSubject()), tokenVersion,
+            getIssuedAt(claims), claims.getExpiration().getTime());
+        if (tokenRevocationList.isRevoked(parsedToken)) {
+            throw new AuthorizationException(ERROR_REVOKED_TOKEN);
+        }
 
-        return new UserId(subject);
+        return parsedToken;
     }
 
+    /**
+     * Issues a new authorization token for the user a refresh token was issued to. Each refresh token can only be
+     * used once, so it is revoked and a new one should be given out with createRefreshToken().
+     * If the user's token version has changed since the refresh token was issued, every token issued before the
+     * change is revoked instead.
+     * @param user the user that the refresh token was issued to, as currently saved
+     * @throws AuthorizationException if the refresh token has already been used or revoked
+     */
+    public String refreshAuthorizationToken(RefreshToken refreshToken, User user) {
+        if (refreshToken.getTokenVersion() != user.getTokenVersion()) {
+            tokenRevocationList.revokeBefore(user.getUserId(), user.getTokenVersion());
+            throw new AuthorizationException(ERROR_REVOKED_TOKEN);
+        }
+
+        if (!tokenRevocationList.revoke(refreshToken)) {
+            throw new AuthorizationException(ERROR_REVOKED_TOKEN);
+        }
+
+        return createAuthorizationToken(user);
+    }
+
+    /**
+     * Checks that an authorization token still matches the user it was issued to, for routes that can't rely on the
+     * role carried in the token alone. If the user's token version has changed since the token was issued, every
+     * token issued before the change is revoked.
+     * @param user the user that the token was issued to, as currently saved
+     * @throws AuthorizationException if the user's token version has changed since the token was issued
+     */
+    public void checkTokenVersion(UserPrincipal principal, User user) {
+        if (principal.getTokenVersion() != user.getTokenVersion()) {
+            tokenRevocationList.revokeBefore(user.getUserId(), user.getTokenVersion());
+            throw new AuthorizationException(ERROR_REVOKED_TOKEN);
+        }
+    }
+
+    /**
+     * Revokes every token issued to the user so far, including ones that were already verified, such as when the
+     * user is deleted
+     */
+    public void revokeAllTokens(UserId userId) {
+        tokenRevocationList.revokeIssuedBefore(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Revokes a refresh token so that it can't be used again, such as when the user logs out
+     * @return false if the refresh token had already been used or revoked
+     */
+    public boolean revokeRefreshToken(RefreshToken refreshToken) {
+        return tokenRevocationList.revoke(refreshToken);
+    }
+
+    /**
+     * Undoes revokeRefreshToken(), or the revocation done by refreshAuthorizationToken(), for when saving the
+     * revocation was rolled back. The token is revoked right away rather than once it is saved so that two requests
+     * can't use it at the same time.
+     */
+    public void restoreRefreshToken(RefreshToken refreshToken) {
+        tokenRevocationList.unrevoke(refreshToken);
+    }
+
+    /**
+     * Revokes the refresh tokens that were saved as revoked or used before the application restarted
+     */
+    public void restoreRevokedTokens(List<RevokedToken> revokedTokens) {
+        for (RevokedToken revokedToken : revokedTokens) {
+            tokenRevocationList.revoke(revokedToken.getTokenId(), revokedToken.getExpirationTime());
+        }
+    }
+
+    /**
+     * @throws ServerBusyException if too many passwords are already waiting to be hashed
+     */
     public Password hashPassword(String plaintext) {
-        String passwordHash = passwordService.encryptPassword(plaintext);
+        String passwordHash = hashingExecutor.run(() -> passwordService.encryptPassword(plaintext));
 
         return new Password(passwordHash);
     }
 
     private boolean doesPasswordMatch(String plaintext, Password password) {
-        return passwordService.passwordsMatch(plaintext, password.getHash());
+        return hashingExecutor.run(() -> passwordService.passwordsMatch(plaintext, password.getHash()));
+    }
+
+    private static PasswordService createPasswordService(int hashIterations) {
+        DefaultHashService hashService = new DefaultHashService();
+        hashService.setHashAlgorithmName(DefaultPasswordService.DEFAULT_HASH_ALGORITHM);
+        hashService.setHashIterations(hashIterations);
+        hashService.setGeneratePublicSalt(true);
+
+        DefaultPasswordService passwordService = new DefaultPasswordService();
+        passwordService.setHashService(hashService);
+        return passwordService;
     }
 
     private String createAuthorizationToken(User user) {
@@ -121,14 +371,47 @@ public class SecurityManager {
 
         UserId userId = user.getUserId();
         claims.setSubject(userId.getValue());
+        claims.put(CLAIM_ROLE, user.getUserRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
 
-        Date expirationDate = new Date();
-        expirationDate.setTime(expirationDate.getTime() + (TTL_IN_SECONDS * MILLISECONDS_TO_SECONDS_MULTIPLIER));
-        claims.setExpiration(expirationDate);
+        claims.setIssuedAt(new Date());
+        claims.setExpiration(createExpirationDate(authorizationTokenTtl));
 
         return claims;
     }
 
+    private static Date createExpirationDate(int ttlInSeconds) {
+        Date expirationDate = new Date();
+        expirationDate.setTime(expirationDate.getTime() + ((long) ttlInSeconds * MILLISECONDS_TO_SECONDS_MULTIPLIER));
+        return expirationDate;
+    }
+
+    private UserPrincipal createPrincipal(Claims claims) {
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (role == null || tokenVersion == null || claims.containsKey(CLAIM_TOKEN_USE)) {
+            throw new AuthorizationException(ERROR_INVALID_TOKEN);
+        }
+
+        try {
+            return new UserPrincipal(new UserId(claims.getSubject()), UserRole.valueOf(role), tokenVersion,
+                getIssuedAt(claims));
+        } catch (IllegalArgumentException ex) {
+            throw new AuthorizationException(ERROR_INVALID_TOKEN);
+        }
+    }
+
+    private static long getIssuedAt(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : 0;
+    }
+
+    private void checkForRevocation(UserPrincipal principal) {
+        if (tokenRevocationList.isRevoked(principal)) {
+            throw new AuthorizationException(ERROR_REVOKED_TOKEN);
+        }
+    }
+
     private Jwt parseAuthorizationToken(String authorizationToken) {
         return Jwts.parser()
             .setSigningKey(signatureKey)
@@ -0,0 +1,110 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the tokens that have been revoked before they expire: single refresh tokens, by their ID, every token
+ * issued to a user before the user's token version was last changed, and every token issued to a user up to the time
+ * the user was deleted.
+ *
+ * The list is held in memory so that tokens can be checked without reading the database. Revoked refresh tokens are
+ * saved by the RevokedTokenManager and put back in the list when the application restarts. Revocations by token
+ * version or by user aren't saved, since refresh tokens are also checked against the saved user when they are used,
+ * and privileged routes check authorization tokens the same way.
+ */
+class TokenRevocationList {
+
+    private static final int MIN_PRUNE_SIZE = 1000;
+
+    private final LongSupplier clock;
+    //the expiration time of each revoked refresh token, which is kept until then
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    //the lowest token version still accepted for each user whose tokens have been revoked
+    private final Map<UserId, Integer> minimumTokenVersions = new ConcurrentHashMap<>();
+    //the time in milliseconds that each deleted user's tokens were revoked at
+    private final Map<UserId, Long> userRevocationTimes = new ConcurrentHashMap<>();
+    private volatile int pruneSize = MIN_PRUNE_SIZE;
+
+    /**
+     * @param clock returns the current time in milliseconds
+     */
+    TokenRevocationList(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return false if the refresh token had already been revoked
+     */
+    boolean revoke(RefreshToken refreshToken) {
+        return revoke(refreshToken.getTokenId(), refreshToken.getExpirationTime());
+    }
+
+    /**
+     * @param expirationTime the time in milliseconds that the token expires at
+     * @return false if the refresh token had already been revoked
+     */
+    boolean revoke(String tokenId, long expirationTime) {
+        boolean isNewlyRevoked = revokedTokenIds.putIfAbsent(tokenId, expirationTime) == null;
+
+        //revoked tokens that have expired since are dropped once the list has doubled in size
+        if (revokedTokenIds.size() >= pruneSize) {
+            long now = clock.getAsLong();
+            revokedTokenIds.values().removeIf(revokedExpirationTime -> now >= revokedExpirationTime);
+            pruneSize = Math.max(MIN_PRUNE_SIZE, revokedTokenIds.size() * 2);
+        }
+
+        return isNewlyRevoked;
+    }
+
+    /**
+     * Accepts a revoked refresh token again, for when its revocation couldn't be saved
+     */
+    void unrevoke(RefreshToken refreshToken) {
+        revokedTokenIds.remove(refreshToken.getTokenId());
+    }
+
+    /**
+     * Revokes every token issued to the user with a token version lower than the given one
+     */
+    void revokeBefore(UserId userId, int tokenVersion) {
+        minimumTokenVersions.merge(userId, tokenVersion, Math::max);
+    }
+
+    /**
+     * Revokes every token issued to the user up to the given time. Tokens issued to a new user with the same ID
+     * afterwards are still accepted.
+     * @param time the time in milliseconds to revoke the user's tokens up to
+     */
+    void revokeIssuedBefore(UserId userId, long time) {
+        userRevocationTimes.merge(userId, time, Math::max);
+    }
+
+    boolean isRevoked(RefreshToken refreshToken) {
+        return revokedTokenIds.containsKey(refreshToken.getTokenId())
+            || isRevoked(refreshToken.getUserId(), refreshToken.getTokenVersion(), refreshToken.getIssuedAt());
+    }
+
+    boolean isRevoked(UserPrincipal principal) {
+        return isRevoked(principal.getUserId(), principal.getTokenVersion(), principal.getIssuedAt());
+    }
+
+    int size() {
+        return revokedTokenIds.size();
+    }
+
+    private boolean isRevoked(UserId userId, int tokenVersion, long issuedAt) {
+        Integer minimumTokenVersion = minimumTokenVersions.get(userId);
+        if (minimumTokenVersion != null && tokenVersion < minimumTokenVersion) {
+            return true;
+        }
+
+        //tokens only carry the second they were issued in, so ones from the same second as the revocation are refused
+        Long revocationTime = userRevocationTimes.get(userId);
+        return revocationTime != null && issuedAt <= revocationTime;
+    }
+
+}
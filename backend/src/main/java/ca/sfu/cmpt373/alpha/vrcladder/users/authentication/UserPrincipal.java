@@ -0,0 +1,46 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+
+/**
+ * The user that an authorization token was issued to, as described by the token's claims.
+ * This lets a request be authorized without loading the user from the database.
+ */
+public class UserPrincipal {
+
+    private final UserId userId;
+    private final UserRole userRole;
+    private final int tokenVersion;
+    private final long issuedAt;
+
+    /**
+     * @param issuedAt the time in milliseconds that the token was issued at, or 0 if the token doesn't say
+     */
+    public UserPrincipal(UserId userId, UserRole userRole, int tokenVersion, long issuedAt) {
+        this.userId = userId;
+        this.userRole = userRole;
+        this.tokenVersion = tokenVersion;
+        this.issuedAt = issuedAt;
+    }
+
+    public UserId getUserId() {
+        return userId;
+    }
+
+    public UserRole getUserRole() {
+        return userRole;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * @return the time in milliseconds that the token was issued at, or 0 if the token doesn't say
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+}
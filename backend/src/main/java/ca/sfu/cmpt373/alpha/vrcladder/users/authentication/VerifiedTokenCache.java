@@ -0,0 +1,82 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the authorization tokens whose signatures have already been verified, along with the principal each one
+ * describes, so that a client sending the same token with every request only has it verified once.
+ * Tokens are dropped from the cache once they expire, and the cache holds at most maxSize tokens.
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * @param clock returns the current time in milliseconds
+     */
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the principal the token describes, or null if the token hasn't been verified or has expired
+     */
+    UserPrincipal get(String authorizationToken) {
+        VerifiedToken verifiedToken = verifiedTokens.get(authorizationToken);
+        if (verifiedToken == null) {
+            return null;
+        }
+
+        if (verifiedToken.isExpired(clock.getAsLong())) {
+            verifiedTokens.remove(authorizationToken, verifiedToken);
+            return null;
+        }
+
+        return verifiedToken.principal;
+    }
+
+    /**
+     * Adds a token whose signature has been verified. When the cache is full, the expired tokens are dropped first,
+     * and then as many others as needed to make room.
+     * @param expirationTime the time in milliseconds that the token expires at
+     */
+    void put(String authorizationToken, UserPrincipal principal, long expirationTime) {
+        if (verifiedTokens.size() >= maxSize) {
+            long now = clock.getAsLong();
+            verifiedTokens.values().removeIf(verifiedToken -> verifiedToken.isExpired(now));
+
+            Iterator<String> tokens = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= maxSize && tokens.hasNext()) {
+                tokens.next();
+                tokens.remove();
+            }
+        }
+
+        verifiedTokens.put(authorizationToken, new VerifiedToken(principal, expirationTime));
+    }
+
+    int size() {
+        return verifiedTokens.size();
+    }
+
+    private static class VerifiedToken {
+        private final UserPrincipal principal;
+        private final long expirationTime;
+
+        VerifiedToken(UserPrincipal principal, long expirationTime) {
+            this.principal = principal;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expirationTime;
+        }
+    }
+
+}
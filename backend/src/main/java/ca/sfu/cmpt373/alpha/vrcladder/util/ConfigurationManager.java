@@ -1,5 +1,6 @@
 package ca.sfu.cmpt373.alpha.vrcladder.util;
 
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.PropertyInstantiationException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.PropertyNotFoundException;
 
 import java.io.IOException;
@@ -9,6 +10,7 @@ public class ConfigurationManager {
     private static final String RESOURCES_FILE_NAME = "configuration.properties";
 
     private static final String ERROR_PROPERTY_NOT_FOUND = "Property %s was not found in file";
+    private static final String ERROR_PROPERTY_NOT_A_NUMBER = "Property %s must be a whole number";
     private static final String ERROR_LOADING_RESOURCES_FILE = "There was an error accessing the " +
             "configuration resources file. Please ensure that you have built the project using gradle, " +
             "and your $rootprj/build/resources/main directory contains a .properties file";
@@ -19,6 +21,24 @@ public class ConfigurationManager {
     private static final String PROPERTY_DATABASE_DRIVER = "databaseDriver";
     private static final String PROPERTY_DATABASE_DIALECT = "databaseDialect";
     private static final String PROPERTY_DATABASE_CREATE_MODE = "databaseCreateMode";
+    private static final String PROPERTY_DATABASE_POOL_MIN_SIZE = "databasePoolMinSize";
+    private static final String PROPERTY_DATABASE_POOL_MAX_SIZE = "databasePoolMaxSize";
+    private static final String PROPERTY_DATABASE_POOL_IDLE_TIMEOUT = "databasePoolIdleTimeout";
+    private static final String PROPERTY_DATABASE_POOL_CHECKOUT_TIMEOUT = "databasePoolCheckoutTimeout";
+    private static final String PROPERTY_DATABASE_STATEMENT_CACHE_SIZE = "databaseStatementCacheSize";
+    private static final String PROPERTY_DATABASE_LEAK_DETECTION_TIMEOUT = "databaseLeakDetectionTimeout";
+    private static final String PROPERTY_PASSWORD_HASH_ITERATIONS = "passwordHashIterations";
+    private static final String PROPERTY_PASSWORD_HASHING_THREAD_COUNT = "passwordHashingThreadCount";
+    private static final String PROPERTY_PASSWORD_HASHING_QUEUE_SIZE = "passwordHashingQueueSize";
+    private static final String PROPERTY_LOGIN_ATTEMPT_WINDOW = "loginAttemptWindow";
+    private static final String PROPERTY_LOGIN_ATTEMPT_USER_LIMIT = "loginAttemptUserLimit";
+    private static final String PROPERTY_LOGIN_ATTEMPT_ADDRESS_LIMIT = "loginAttemptAddressLimit";
+    private static final String PROPERTY_LOGIN_ATTEMPT_FLUSH_INTERVAL = "loginAttemptFlushInterval";
+    private static final String PROPERTY_TRUSTED_PROXIES = "trustedProxies";
+    private static final String PROPERTY_TOKEN_SIGNING_KEY = "tokenSigningKey";
+    private static final String PROPERTY_ALLOW_GENERATED_TOKEN_SIGNING_KEY = "allowGeneratedTokenSigningKey";
+    private static final String PROPERTY_AUTHORIZATION_TOKEN_TTL = "authorizationTokenTtl";
+    private static final String PROPERTY_REFRESH_TOKEN_TTL = "refreshTokenTtl";
 
     private Properties properties;
 
@@ -56,6 +76,137 @@ public class ConfigurationManager {
         return getProperty(PROPERTY_DATABASE_CREATE_MODE);
     }
 
+    public int getDatabasePoolMinSize() {
+        return getIntProperty(PROPERTY_DATABASE_POOL_MIN_SIZE);
+    }
+
+    public int getDatabasePoolMaxSize() {
+        return getIntProperty(PROPERTY_DATABASE_POOL_MAX_SIZE);
+    }
+
+    /**
+     * @return the number of seconds a pooled connection can sit unused before it is closed
+     */
+    public int getDatabasePoolIdleTimeout() {
+        return getIntProperty(PROPERTY_DATABASE_POOL_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @return the number of milliseconds to wait for a free connection before failing, or 0 to wait forever
+     */
+    public int getDatabasePoolCheckoutTimeout() {
+        return getIntProperty(PROPERTY_DATABASE_POOL_CHECKOUT_TIMEOUT);
+    }
+
+    /**
+     * @return the number of prepared statements cached across the pool, or 0 to disable the cache
+     */
+    public int getDatabaseStatementCacheSize() {
+        return getIntProperty(PROPERTY_DATABASE_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @return the number of seconds a connection can be checked out before it is treated as leaked, or 0 to disable
+     */
+    public int getDatabaseLeakDetectionTimeout() {
+        return getIntProperty(PROPERTY_DATABASE_LEAK_DETECTION_TIMEOUT);
+    }
+
+    /**
+     * @return the number of times new passwords are hashed. Use the PasswordHashBenchmark to see how long a login
+     * takes with a given number of iterations on the server
+     */
+    public int getPasswordHashIterations() {
+        return getIntProperty(PROPERTY_PASSWORD_HASH_ITERATIONS);
+    }
+
+    /**
+     * @return the number of worker threads that hash and check passwords
+     */
+    public int getPasswordHashingThreadCount() {
+        return getIntProperty(PROPERTY_PASSWORD_HASHING_THREAD_COUNT);
+    }
+
+    /**
+     * @return the number of passwords that can wait for a hashing thread before logins are refused as busy
+     */
+    public int getPasswordHashingQueueSize() {
+        return getIntProperty(PROPERTY_PASSWORD_HASHING_QUEUE_SIZE);
+    }
+
+    /**
+     * @return the number of seconds that login attempts are counted against a user and an address for
+     */
+    public int getLoginAttemptWindow() {
+        return getIntProperty(PROPERTY_LOGIN_ATTEMPT_WINDOW);
+    }
+
+    /**
+     * @return the number of logins that can be attempted for one user within the window
+     */
+    public int getLoginAttemptUserLimit() {
+        return getIntProperty(PROPERTY_LOGIN_ATTEMPT_USER_LIMIT);
+    }
+
+    /**
+     * @return the number of logins that can be attempted from one address within the window
+     */
+    public int getLoginAttemptAddressLimit() {
+        return getIntProperty(PROPERTY_LOGIN_ATTEMPT_ADDRESS_LIMIT);
+    }
+
+    /**
+     * @return the number of seconds between writes of the failed logins to the users' attempts
+     */
+    public int getLoginAttemptFlushInterval() {
+        return getIntProperty(PROPERTY_LOGIN_ATTEMPT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @return a comma separated list of the IP addresses or CIDR ranges of the proxies, such as load balancers, whose
+     * X-Forwarded-For headers are trusted to give the client's address, or an empty string if there are none
+     */
+    public String getTrustedProxies() {
+        return getProperty(PROPERTY_TRUSTED_PROXIES);
+    }
+
+    /**
+     * @return the Base64 encoded key that tokens are signed with, or an empty string if none was configured
+     */
+    public String getTokenSigningKey() {
+        return getProperty(PROPERTY_TOKEN_SIGNING_KEY);
+    }
+
+    /**
+     * @return whether a new signing key may be generated every time the application starts when none was configured
+     */
+    public boolean isGeneratedTokenSigningKeyAllowed() {
+        return Boolean.parseBoolean(getProperty(PROPERTY_ALLOW_GENERATED_TOKEN_SIGNING_KEY).trim());
+    }
+
+    /**
+     * @return the number of seconds an authorization token is valid for
+     */
+    public int getAuthorizationTokenTtl() {
+        return getIntProperty(PROPERTY_AUTHORIZATION_TOKEN_TTL);
+    }
+
+    /**
+     * @return the number of seconds a refresh token can be traded for new authorization tokens
+     */
+    public int getRefreshTokenTtl() {
+        return getIntProperty(PROPERTY_REFRESH_TOKEN_TTL);
+    }
+
+    private int getIntProperty(String property) {
+        String propertyValue = getProperty(property);
+        try {
+            return Integer.parseInt(propertyValue.trim());
+        } catch (NumberFormatException e) {
+            throw new PropertyInstantiationException(String.format(ERROR_PROPERTY_NOT_A_NUMBER, property));
+        }
+    }
+
     private String getProperty(String property) {
         String propertyValue = properties.getProperty(property);
         if (propertyValue == null) {
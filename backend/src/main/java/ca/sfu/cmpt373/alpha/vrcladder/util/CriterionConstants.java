@@ -2,10 +2,16 @@ package ca.sfu.cmpt373.alpha.vrcladder.util;
 
 public class CriterionConstants {
 
+    public static final String USER_ID = "userId";
     public static final String USER_ROLE = "userRole";
 
     public static final String TEAM_FIRST_PLAYER_USER_ID_PROPERTY = "firstPlayer.userId";
     public static final String TEAM_SECOND_PLAYER_USER_ID_PROPERTY = "secondPlayer.userId";
     public static final String TEAM_LADDER_POSITION_PROPERTY = "ladderPosition";
+    public static final String TEAM_FIRST_PLAYER_PROPERTY = "firstPlayer";
+    public static final String TEAM_SECOND_PLAYER_PROPERTY = "secondPlayer";
+    public static final String TEAM_ATTENDANCE_CARD_PROPERTY = "attendanceCard";
+
+    public static final String MATCH_GROUP_ID_PROPERTY = "id";
 
 }
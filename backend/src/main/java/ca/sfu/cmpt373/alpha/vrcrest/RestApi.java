@@ -1,6 +1,9 @@
 package ca.sfu.cmpt373.alpha.vrcrest;
 
 import ca.sfu.cmpt373.alpha.vrcladder.ApplicationManager;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ServerBusyException;
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.UserPrincipal;
 import ca.sfu.cmpt373.alpha.vrcrest.routes.RestRouter;
 import ca.sfu.cmpt373.alpha.vrcrest.security.RouteSignature;
 import com.google.gson.JsonObject;
@@ -9,7 +12,10 @@ import org.eclipse.jetty.http.HttpStatus;
 import spark.Request;
 import spark.Spark;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class RestApi {
 
@@ -17,17 +23,21 @@ public class RestApi {
 
     public static final String HEADER_ACCESS = "Access-Control-Allow-Origin";
     public static final String HEADER_ACCESS_VALUE = "*";
+    public static final String HEADER_RETRY_AFTER = "Retry-After";
 
     public static final String JSON_RESPONSE_TYPE = "application/json";
 
     private static final String ERROR_MISSING_AUTHORIZATION_TOKEN = "The request is missing the Authorization header.";
+    private static final String ERROR_INTERNAL = "The server encountered an error while handling the request.";
 
     private ApplicationManager appManager;
     private List<RestRouter> routers;
+    private Set<RouteSignature> publicRouteSignatures;
 
     public RestApi(ApplicationManager appManager, List<RestRouter> routers) {
         this.appManager = appManager;
         this.routers = routers;
+        this.publicRouteSignatures = collectPublicRouteSignatures(routers);
         initialize();
     }
 
@@ -40,6 +50,7 @@ public class RestApi {
         configure();
         attachRouters();
         attachAuthorization();
+        attachUnitOfWork();
         attachResponseFilters();
     }
 
@@ -64,15 +75,13 @@ public class RestApi {
             RouteSignature routeSignature = new RouteSignature(request);
 
             try {
-                for (RestRouter currentRouter : routers) {
-                    List<RouteSignature> currentRouterSignatures = currentRouter.getPublicRouteSignatures();
-                    if (currentRouterSignatures.contains(routeSignature)) {
-                        return;
-                    }
+                if (publicRouteSignatures.contains(routeSignature)) {
+                    return;
                 }
 
                 String authorizationToken = extractAuthorizationToken(request);
-                appManager.getSecurityManager().parseToken(authorizationToken);
+                UserPrincipal principal = appManager.getSecurityManager().parsePrincipal(authorizationToken);
+                request.attribute(RestRouter.ATTRIBUTE_PRINCIPAL, principal);
 
             } catch (AuthorizationException ex) {
                 JsonObject responseBody = new JsonObject();
@@ -85,6 +94,18 @@ public class RestApi {
         });
     }
 
+    /**
+     * The public routes of every router are gathered once, so each request is checked with a single lookup
+     */
+    private static Set<RouteSignature> collectPublicRouteSignatures(List<RestRouter> routers) {
+        Set<RouteSignature> routeSignatures = new HashSet<>();
+        for (RestRouter router : routers) {
+            routeSignatures.addAll(router.getPublicRouteSignatures());
+        }
+
+        return Collections.unmodifiableSet(routeSignatures);
+    }
+
     private String extractAuthorizationToken(Request request) {
         String authorizationHeader = request.headers(RestRouter.HEADER_AUTHORIZATION);
         if (authorizationHeader == null) {
@@ -94,6 +115,46 @@ public class RestApi {
         return authorizationHeader;
     }
 
+    /**
+     * Every DatabaseManager call made while handling a request shares one Session and transaction. The work is
+     * committed once the route has finished successfully, and rolled back if the route responded with an error
+     * status or threw an exception. This is attached after authorization so rejected requests never open a Session.
+     */
+    private void attachUnitOfWork() {
+        SessionManager sessionManager = appManager.getSessionManager();
+        Spark.before(ROUTE_WILDCARD, (request, response) -> sessionManager.beginUnitOfWork());
+        Spark.after(ROUTE_WILDCARD, (request, response) ->
+            sessionManager.endUnitOfWork(response.status() < HttpStatus.BAD_REQUEST_400));
+
+        //after filters don't run when a route throws, so the unit of work has to be rolled back here
+        Spark.exception(Exception.class, (exception, request, response) -> {
+            sessionManager.endUnitOfWork(false);
+            exception.printStackTrace();
+
+            JsonObject responseBody = new JsonObject();
+            responseBody.addProperty(RestRouter.JSON_PROPERTY_ERROR, ERROR_INTERNAL);
+            response.status(HttpStatus.INTERNAL_SERVER_ERROR_500);
+            response.header(HEADER_ACCESS, HEADER_ACCESS_VALUE);
+            response.type(JSON_RESPONSE_TYPE);
+            response.body(responseBody.toString());
+        });
+
+        //Spark uses the handler for the most specific exception type, so this replaces the one above for
+        //work that was refused because the server is busy
+        Spark.exception(ServerBusyException.class, (exception, request, response) -> {
+            sessionManager.endUnitOfWork(false);
+
+            ServerBusyException serverBusyException = (ServerBusyException) exception;
+            JsonObject responseBody = new JsonObject();
+            responseBody.addProperty(RestRouter.JSON_PROPERTY_ERROR, serverBusyException.getMessage());
+            response.status(HttpStatus.SERVICE_UNAVAILABLE_503);
+            response.header(HEADER_RETRY_AFTER, Integer.toString(serverBusyException.getRetryAfterSeconds()));
+            response.header(HEADER_ACCESS, HEADER_ACCESS_VALUE);
+            response.type(JSON_RESPONSE_TYPE);
+            response.body(responseBody.toString());
+        });
+    }
+
     private void attachResponseFilters() {
         Spark.after(ROUTE_WILDCARD, (request, response) -> {
             response.header(HEADER_ACCESS, HEADER_ACCESS_VALUE);
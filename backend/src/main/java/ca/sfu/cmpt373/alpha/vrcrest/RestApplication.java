@@ -6,6 +6,8 @@ import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroupManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.LoginThrottle;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.RevokedTokenManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
 import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
 import ca.sfu.cmpt373.alpha.vrcrest.routes.LadderRouter;
@@ -14,8 +16,8 @@ import ca.sfu.cmpt373.alpha.vrcrest.routes.MatchGroupRouter;
 import ca.sfu.cmpt373.alpha.vrcrest.routes.RestRouter;
 import ca.sfu.cmpt373.alpha.vrcrest.routes.TeamRouter;
 import ca.sfu.cmpt373.alpha.vrcrest.routes.UserRouter;
+import ca.sfu.cmpt373.alpha.vrcrest.security.ClientAddressResolver;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.impl.crypto.MacProvider;
 import spark.servlet.SparkApplication;
 
 import java.security.Key;
@@ -37,24 +39,32 @@ public class RestApplication implements SparkApplication {
         ConfigurationManager configurationManager = new ConfigurationManager();
         SessionManager sessionManager = new SessionManager(configurationManager);
 
-        // TODO - Receive these from configuration file instead.
+        // TODO - Receive the algorithm from configuration file as well.
         SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.HS256;
-        Key signatureKey = MacProvider.generateKey();
+        Key signatureKey = SecurityManager.createSignatureKey(signatureAlgorithm,
+            configurationManager.getTokenSigningKey(), configurationManager.isGeneratedTokenSigningKeyAllowed());
 
-        SecurityManager securityManager = new SecurityManager(signatureAlgorithm, signatureKey);
+        SecurityManager securityManager = new SecurityManager(signatureAlgorithm, signatureKey, configurationManager);
         UserManager userManager = new UserManager(sessionManager);
         TeamManager teamManager = new TeamManager(sessionManager);
         MatchGroupManager matchGroupManager = new MatchGroupManager(sessionManager);
         CourtManager courtManager = new CourtManager(sessionManager);
+        LoginThrottle loginThrottle = new LoginThrottle(userManager, configurationManager);
+        RevokedTokenManager revokedTokenManager = new RevokedTokenManager(sessionManager);
+        securityManager.restoreRevokedTokens(revokedTokenManager.getAllUnexpired());
         ApplicationManager appManager = new ApplicationManager(
                 sessionManager,
                 securityManager,
                 userManager,
                 teamManager,
                 matchGroupManager,
-                courtManager);
+                courtManager,
+                loginThrottle,
+                revokedTokenManager);
 
-        LoginRouter loginRouter = new LoginRouter(appManager);
+        ClientAddressResolver clientAddressResolver =
+            new ClientAddressResolver(configurationManager.getTrustedProxies());
+        LoginRouter loginRouter = new LoginRouter(appManager, clientAddressResolver);
         UserRouter userRouter = new UserRouter(appManager);
         TeamRouter teamRouter = new TeamRouter(appManager);
         MatchGroupRouter matchGroupRouter = new MatchGroupRouter(appManager);
@@ -0,0 +1,46 @@
+package ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import java.lang.reflect.Type;
+
+public class RefreshPayload {
+
+    public static class GsonDeserializer extends BaseGsonDeserializer<RefreshPayload> {
+
+        public static final String JSON_PROPERTY_REFRESH_TOKEN = "refreshToken";
+
+        @Override
+        public RefreshPayload deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+            throws JsonParseException {
+            JsonObject jsonObject = json.getAsJsonObject();
+            checkForMissingProperties(jsonObject);
+
+            JsonElement jsonRefreshToken = jsonObject.get(JSON_PROPERTY_REFRESH_TOKEN);
+            String refreshToken = jsonRefreshToken.getAsString();
+
+            return new RefreshPayload(refreshToken);
+        }
+
+        @Override
+        protected void checkForMissingProperties(JsonObject jsonObject) {
+            if (!jsonObject.has(JSON_PROPERTY_REFRESH_TOKEN)) {
+                throwMissingPropertyException(JSON_PROPERTY_REFRESH_TOKEN);
+            }
+        }
+    }
+
+    private String refreshToken;
+
+    public RefreshPayload(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+}
@@ -0,0 +1,26 @@
+package ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.PlayerSummary;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.JsonProperties;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Produces the same JSON as {@link PlayerGsonSerializer}, from a PlayerSummary
+ */
+public class PlayerSummaryGsonSerializer implements JsonSerializer<PlayerSummary> {
+
+    @Override
+    public JsonElement serialize(PlayerSummary player, Type typeOfSrc, JsonSerializationContext context) {
+        JsonObject jsonUser = new JsonObject();
+
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_USER_ID, player.getUserId());
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_NAME, player.getDisplayName());
+
+        return jsonUser;
+    }
+}
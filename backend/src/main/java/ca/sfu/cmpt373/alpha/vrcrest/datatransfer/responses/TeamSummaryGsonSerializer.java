@@ -0,0 +1,39 @@
+package ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses;
+
+import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamSummary;
+import ca.sfu.cmpt373.alpha.vrcladder.users.PlayerSummary;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.JsonProperties;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Produces the same JSON as {@link TeamGsonSerializer}, from a TeamSummary
+ */
+public class TeamSummaryGsonSerializer implements JsonSerializer<TeamSummary> {
+
+    @Override
+    public JsonElement serialize(TeamSummary team, Type typeOfSrc, JsonSerializationContext context) {
+        JsonObject jsonTeam = new JsonObject();
+
+        jsonTeam.addProperty(JsonProperties.JSON_PROPERTY_TEAM_ID, team.getTeamId());
+        jsonTeam.addProperty(TeamGsonSerializer.JSON_PROPERTY_LADDER_POSITION, team.getLadderPosition());
+        jsonTeam.addProperty(JsonProperties.JSON_PROPERTY_PLAY_TIME, team.getPlayTime().toString());
+        jsonTeam.addProperty(JsonProperties.JSON_PROPERTY_ATTENDANCE_STATUS, team.getAttendanceStatus().toString());
+        jsonTeam.add(TeamGsonSerializer.JSON_PROPERTY_FIRST_PLAYER, serializePlayer(team.getFirstPlayer()));
+        jsonTeam.add(TeamGsonSerializer.JSON_PROPERTY_SECOND_PLAYER, serializePlayer(team.getSecondPlayer()));
+
+        return jsonTeam;
+    }
+
+    private JsonObject serializePlayer(PlayerSummary player) {
+        JsonObject jsonPlayer = new JsonObject();
+        jsonPlayer.addProperty(JsonProperties.JSON_PROPERTY_USER_ID, player.getUserId());
+        jsonPlayer.addProperty(TeamGsonSerializer.JSON_PROPERTY_NAME, player.getDisplayName());
+        return jsonPlayer;
+    }
+
+}
@@ -0,0 +1,29 @@
+package ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.UserSummary;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.JsonProperties;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Produces the same JSON as {@link UserGsonSerializer}, from a UserSummary
+ */
+public class UserSummaryGsonSerializer implements JsonSerializer<UserSummary> {
+
+    @Override
+    public JsonElement serialize(UserSummary user, Type typeOfSrc, JsonSerializationContext context) {
+        JsonObject jsonUser = new JsonObject();
+
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_USER_ID, user.getUserId());
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_USER_ROLE, user.getUserRole().name());
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_NAME, user.getDisplayName());
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_EMAIL_ADDRESS, user.getEmailAddress());
+        jsonUser.addProperty(JsonProperties.JSON_PROPERTY_PHONE_NUMBER, user.getPhoneNumber());
+
+        return jsonUser;
+    }
+}
@@ -5,14 +5,13 @@ import ca.sfu.cmpt373.alpha.vrcladder.exceptions.PdfCouldNotBeCreatedException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TemplateNotFoundException;
 import ca.sfu.cmpt373.alpha.vrcladder.file.PdfManager;
 import ca.sfu.cmpt373.alpha.vrcladder.ladder.Ladder;
+import ca.sfu.cmpt373.alpha.vrcladder.ladder.LadderEngine;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.CourtManager;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroupManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
-import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
-import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewTeamIdListPayload;
@@ -34,6 +33,7 @@ LadderRouter:
     Operations:
         /ladder/regenerate
             Automatically recompute the new ladder AFTER all teams have played/failed to attend. Throws error if any team does not have a ScoreCard filled out.
+            The optional engine query parameter (list or primitive) picks the LadderEngine used to compute it.
         /ladder/rearrange
             Changes the ladder rankings for manual changes
 
@@ -47,7 +47,10 @@ public class LadderRouter extends RestRouter{
     public static final String ROUTE_LADDER_REARRANGE = ROUTE_LADDER + "/rearrange";
     public static final String ROUTE_LADDER_PDF = ROUTE_LADDER + "/pdf";
 
+    private static final String PARAM_ENGINE = "engine";
+
     private static final String ERROR_SCORECARDS_NOT_FILLED = "Not all MatchGroups have reported their scores yet";
+    private static final String ERROR_UNKNOWN_ENGINE = "Unknown ladder engine: %s";
 
     private TeamManager teamManager;
     private MatchGroupManager matchGroupManager;
@@ -114,12 +117,13 @@ public class LadderRouter extends RestRouter{
 
         JsonObject responseBody = new JsonObject();
         try {
+            LadderEngine engine = getLadderEngine(request);
             List<Team> teams = teamManager.getAll();
             List<MatchGroup> matchGroups = matchGroupManager.getAll();
 
             checkAllScoresReported(matchGroups);
-            regenerateLadder(teams, matchGroups);
-            resetPlayerSettings(teams);
+            regenerateLadder(engine, teams, matchGroups);
+            resetMatches();
             response.status(HttpStatus.OK_200);
         } catch (IllegalStateException e) {
             response.status(HttpStatus.BAD_REQUEST_400);
@@ -156,18 +160,26 @@ public class LadderRouter extends RestRouter{
         }
     }
 
-    private void regenerateLadder(List<Team> teams, List<MatchGroup> matchGroups) {
-        Ladder ladder = new Ladder(teams);
-        ladder.updateLadder(matchGroups);
-        teamManager.updateLadderPositions(ladder.getLadder());
+    private LadderEngine getLadderEngine(Request request) {
+        String engineName = request.queryParams(PARAM_ENGINE);
+        if (engineName == null) {
+            return LadderEngine.DEFAULT_ENGINE;
+        }
+
+        try {
+            return LadderEngine.valueOf(engineName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(String.format(ERROR_UNKNOWN_ENGINE, engineName));
+        }
+    }
+
+    private void regenerateLadder(LadderEngine engine, List<Team> teams, List<MatchGroup> matchGroups) {
+        //attendance is reset for the next week in the same transaction as the new ladder positions
+        teamManager.updateLadderPositionsAndResetAttendance(engine.updateLadder(teams, matchGroups));
     }
 
-    private void resetPlayerSettings(List<Team> teams) {
+    private void resetMatches() {
         courtManager.deleteAll();
         matchGroupManager.deleteAll();
-        for (Team team : teams) {
-            teamManager.updateAttendancePlaytime(team.getId(), PlayTime.NONE);
-            teamManager.updateAttendanceStatus(team.getId(), AttendanceStatus.PRESENT);
-        }
     }
 }
@@ -1,13 +1,22 @@
 package ca.sfu.cmpt373.alpha.vrcrest.routes;
 
 import ca.sfu.cmpt373.alpha.vrcladder.ApplicationManager;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ServerBusyException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TemplateNotFoundException;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TooManyAttemptsException;
 import ca.sfu.cmpt373.alpha.vrcladder.notifications.NotificationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.LoginThrottle;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.RefreshToken;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.RevokedTokenManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import ca.sfu.cmpt373.alpha.vrcrest.RestApi;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.LoginPayload;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.RefreshPayload;
+import ca.sfu.cmpt373.alpha.vrcrest.security.ClientAddressResolver;
 import ca.sfu.cmpt373.alpha.vrcrest.security.RouteSignature;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -15,6 +24,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authz.AuthorizationException;
 import org.eclipse.jetty.http.HttpStatus;
 import spark.Request;
 import spark.Response;
@@ -29,23 +39,34 @@ import java.util.List;
 public class LoginRouter extends RestRouter {
 
     public static final String ROUTE_LOGIN = "/login";
+    public static final String ROUTE_REFRESH = "/login/refresh";
+    public static final String ROUTE_LOGOUT = "/logout";
 
     private static final String JSON_PROPERTY_AUTHORIZATION_TOKEN = "authorizationToken";
+    private static final String JSON_PROPERTY_REFRESH_TOKEN = "refreshToken";
 
     private static final List<RouteSignature> PUBLIC_ROUTE_SIGNATURES = createRouteSignature();
 
     private SecurityManager securityManager;
     private UserManager userManager;
+    private LoginThrottle loginThrottle;
+    private RevokedTokenManager revokedTokenManager;
+    private ClientAddressResolver clientAddressResolver;
 
-    public LoginRouter(ApplicationManager applicationManager) {
+    public LoginRouter(ApplicationManager applicationManager, ClientAddressResolver clientAddressResolver) {
         super(applicationManager);
         securityManager = applicationManager.getSecurityManager();
         userManager = applicationManager.getUserManager();
+        loginThrottle = applicationManager.getLoginThrottle();
+        revokedTokenManager = applicationManager.getRevokedTokenManager();
+        this.clientAddressResolver = clientAddressResolver;
     }
 
     @Override
     public void attachRoutes() {
         Spark.post(ROUTE_LOGIN, ((request, response) -> handleLogin(request, response)));
+        Spark.post(ROUTE_REFRESH, ((request, response) -> handleRefresh(request, response)));
+        Spark.post(ROUTE_LOGOUT, ((request, response) -> handleLogout(request, response)));
     }
 
     @Override
@@ -59,6 +80,13 @@ public class LoginRouter extends RestRouter {
         RouteSignature createUserSignature = new RouteSignature(ROUTE_LOGIN, HttpMethod.post);
         routeSignatures.add(createUserSignature);
 
+        //refresh tokens stand in for the authorization token on these routes, since it might have expired
+        RouteSignature refreshSignature = new RouteSignature(ROUTE_REFRESH, HttpMethod.post);
+        routeSignatures.add(refreshSignature);
+
+        RouteSignature logoutSignature = new RouteSignature(ROUTE_LOGOUT, HttpMethod.post);
+        routeSignatures.add(logoutSignature);
+
         return routeSignatures;
     }
 
@@ -66,6 +94,7 @@ public class LoginRouter extends RestRouter {
     protected Gson buildGson() {
         return new GsonBuilder()
             .registerTypeAdapter(LoginPayload.class, new LoginPayload.GsonDeserializer())
+            .registerTypeAdapter(RefreshPayload.class, new RefreshPayload.GsonDeserializer())
             .setPrettyPrinting()
             .create();
     }
@@ -74,17 +103,38 @@ public class LoginRouter extends RestRouter {
         JsonObject responseBody = new JsonObject();
         try {
             LoginPayload loginPayload = getGson().fromJson(request.body(), LoginPayload.class);
+            UserId userId = loginPayload.getUserId();
+            String clientAddress = clientAddressResolver.getClientAddress(request);
 
-            User user = userManager.getById(loginPayload.getUserId());
-            user.incrementAttempts();
-            userManager.updateAttempts(user.getUserId(), user.getAttempts());
-            String plaintextPassword = loginPayload.getPassword();
+            //checked before anything is read or hashed, so that refused attempts cost next to nothing
+            loginThrottle.acquire(userId, clientAddress);
 
-            String authorizationToken = securityManager.login(user, plaintextPassword);
+            User user = userManager.getById(userId);
+            String plaintextPassword = loginPayload.getPassword();
 
-            user.resetAttempts();
-            userManager.updateAttempts(loginPayload.getUserId(), user.getAttempts());
+            //failed attempts are saved by the throttle every few seconds, so the ones it hasn't saved yet are added
+            //for the failed login notifications, and the loaded user is left unchanged
+            int failedAttempts = user.getAttempts() + loginThrottle.getUnsavedFailures(userId) + 1;
+            String authorizationToken;
+            try {
+                //the user has been read, so the database connection is given back while the password is checked
+                authorizationToken = runWithoutConnection(() ->
+                    securityManager.login(user, plaintextPassword, failedAttempts));
+            } catch (AuthenticationException ex) {
+                loginThrottle.recordFailure(userId);
+                throw ex;
+            } catch (ServerBusyException ex) {
+                //the password was never checked, so the client shouldn't be locked out for retrying
+                loginThrottle.release(userId, clientAddress);
+                throw ex;
+            }
+
+            loginThrottle.recordSuccess(userId, clientAddress);
+            if (user.getAttempts() > 0) {
+                userManager.resetAttempts(userId);
+            }
             responseBody.addProperty(JSON_PROPERTY_AUTHORIZATION_TOKEN, authorizationToken);
+            responseBody.addProperty(JSON_PROPERTY_REFRESH_TOKEN, securityManager.createRefreshToken(user));
             response.status(HttpStatus.OK_200);
         } catch (JsonSyntaxException ex) {
             responseBody.addProperty(JSON_PROPERTY_ERROR, ERROR_MALFORMED_JSON);
@@ -95,6 +145,10 @@ public class LoginRouter extends RestRouter {
         } catch (AuthenticationException ex) {
             responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
             response.status(HttpStatus.UNAUTHORIZED_401);
+        } catch (TooManyAttemptsException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.TOO_MANY_REQUESTS_429);
+            response.header(RestApi.HEADER_RETRY_AFTER, Integer.toString(ex.getRetryAfterSeconds()));
         } catch (EntityNotFoundException ex) {
             responseBody.addProperty(JSON_PROPERTY_ERROR, SecurityManager.ERROR_INVALID_CREDENTIALS);
             response.status(HttpStatus.UNAUTHORIZED_401);
@@ -105,4 +159,69 @@ public class LoginRouter extends RestRouter {
         return responseBody.toString();
     }
 
+    /**
+     * Trades a refresh token for a new authorization token and refresh token, without checking the user's password.
+     * The user is still loaded, usually from the cache, so that the new token has the user's current role.
+     */
+    private String handleRefresh(Request request, Response response) {
+        JsonObject responseBody = new JsonObject();
+        try {
+            RefreshPayload refreshPayload = getGson().fromJson(request.body(), RefreshPayload.class);
+            RefreshToken refreshToken = securityManager.parseRefreshToken(refreshPayload.getRefreshToken());
+
+            User user = userManager.getById(refreshToken.getUserId());
+            String authorizationToken = securityManager.refreshAuthorizationToken(refreshToken, user);
+            //saved so that the used token stays refused if the application restarts before it expires, and accepted
+            //again if saving that is rolled back
+            afterRollback(() -> securityManager.restoreRefreshToken(refreshToken));
+            revokedTokenManager.create(refreshToken);
+
+            responseBody.addProperty(JSON_PROPERTY_AUTHORIZATION_TOKEN, authorizationToken);
+            responseBody.addProperty(JSON_PROPERTY_REFRESH_TOKEN, securityManager.createRefreshToken(user));
+            response.status(HttpStatus.OK_200);
+        } catch (JsonSyntaxException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ERROR_MALFORMED_JSON);
+            response.status(HttpStatus.BAD_REQUEST_400);
+        } catch (JsonParseException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.BAD_REQUEST_400);
+        } catch (AuthorizationException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.UNAUTHORIZED_401);
+        } catch (EntityNotFoundException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, SecurityManager.ERROR_INVALID_CREDENTIALS);
+            response.status(HttpStatus.UNAUTHORIZED_401);
+        }
+
+        return responseBody.toString();
+    }
+
+    /**
+     * Revokes a refresh token so that it can't be traded for authorization tokens anymore
+     */
+    private String handleLogout(Request request, Response response) {
+        JsonObject responseBody = new JsonObject();
+        try {
+            RefreshPayload refreshPayload = getGson().fromJson(request.body(), RefreshPayload.class);
+            RefreshToken refreshToken = securityManager.parseRefreshToken(refreshPayload.getRefreshToken());
+
+            if (securityManager.revokeRefreshToken(refreshToken)) {
+                afterRollback(() -> securityManager.restoreRefreshToken(refreshToken));
+                revokedTokenManager.create(refreshToken);
+            }
+            response.status(HttpStatus.OK_200);
+        } catch (JsonSyntaxException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ERROR_MALFORMED_JSON);
+            response.status(HttpStatus.BAD_REQUEST_400);
+        } catch (JsonParseException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.BAD_REQUEST_400);
+        } catch (AuthorizationException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.UNAUTHORIZED_401);
+        }
+
+        return responseBody.toString();
+    }
+
 }
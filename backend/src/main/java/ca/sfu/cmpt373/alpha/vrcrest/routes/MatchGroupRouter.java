@@ -2,6 +2,7 @@ package ca.sfu.cmpt373.alpha.vrcrest.routes;
 
 import ca.sfu.cmpt373.alpha.vrcladder.ApplicationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MatchMakingException;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ValidationException;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.Court;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.CourtManager;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
@@ -12,6 +13,7 @@ import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic.MatchScheduler;
 import ca.sfu.cmpt373.alpha.vrcladder.scores.ScoreCard;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.IdType;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewTeamIdListPayload;
@@ -51,6 +53,9 @@ public class MatchGroupRouter extends RestRouter {
     }
 
     private static final String PARAM_MATCHGROUP_ID = PARAM_ID + "matchGroupId";
+    private static final String PARAM_COURTS = "courts";
+    private static final String PARAM_TIME_SLOTS = "timeSlots";
+    private static final String TIME_SLOTS_SEPARATOR = ",";
 
     private static final String ROUTE_MATCHGROUP = "/matchgroup";
 
@@ -69,6 +74,8 @@ public class MatchGroupRouter extends RestRouter {
 
     private static final String ERROR_NO_MATCHGROUP_FOUND = "There was no MatchGroup found for the given Id";
     private static final String ERROR_NO_TEAM_MATCHGROUP_FOUND = "The Team or the MatchGroup couldn't be found";
+    private static final String ERROR_INVALID_COURT_COUNT = "The number of courts must be a positive number: %s";
+    private static final String ERROR_INVALID_TIME_SLOT = "Unknown or unplayable time slot: %s";
 
     @Override
     public void attachRoutes() {
@@ -103,11 +110,31 @@ public class MatchGroupRouter extends RestRouter {
 
     private String handleGetAllMatchGroups(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
-        List<MatchGroup> matchGroups = matchGroupManager.getAll();
-        responseBody.add(JSON_PROPERTY_MATCHGROUPS, getGson().toJsonTree(matchGroups));
+        if (!isPagedRequest(request)) {
+            List<MatchGroup> matchGroups = matchGroupManager.getAll();
+            responseBody.add(JSON_PROPERTY_MATCHGROUPS, getGson().toJsonTree(matchGroups));
+            return responseBody.toString();
+        }
+
+        try {
+            int pageSize = getPageSize(request);
+            List<MatchGroup> matchGroups = matchGroupManager.getPage(getLadderPositionCursor(request), pageSize + 1);
+            addPage(responseBody, JSON_PROPERTY_MATCHGROUPS, getGson(), matchGroups, pageSize, this::getCursor);
+        } catch (ValidationException e) {
+            response.status(HttpStatus.BAD_REQUEST_400);
+            responseBody.addProperty(JSON_PROPERTY_ERROR, e.getMessage());
+        }
         return responseBody.toString();
     }
 
+    /**
+     * MatchGroups are paged by the ladder position of their lowest ranked team
+     */
+    private String getCursor(MatchGroup matchGroup) {
+        List<Team> teams = matchGroup.getTeams();
+        return teams.get(teams.size() - 1).getLadderPosition().getValue().toString();
+    }
+
     private String handleGetMatchSchedule(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
         List<Court> courts = courtManager.getAll();
@@ -137,13 +164,8 @@ public class MatchGroupRouter extends RestRouter {
             courtManager.deleteAll();
             matchGroupManager.deleteAll();
             List<Team> teams = teamManager.getAll();
-            List<Court> courts = MatchScheduler.scheduleMatches(MatchGroupGenerator.generateMatchGroupings(teams));
-            for (Court court : courts) {
-                for (MatchGroup matchGroup : court.getScheduledMatches().values()) {
-                    matchGroupManager.create(matchGroup);
-                }
-                courtManager.create(court);
-            }
+            List<Court> courts = scheduleMatches(request, MatchGroupGenerator.generateMatchGroupings(teams));
+            matchGroupManager.createAll(courts);
         } catch (MatchMakingException e) {
             response.status(HttpStatus.BAD_REQUEST_400);
             responseBody.addProperty(JSON_PROPERTY_ERROR, e.getMessage());
@@ -154,6 +176,58 @@ public class MatchGroupRouter extends RestRouter {
         return responseBody.toString();
     }
 
+    /**
+     * Uses the original two time slot schedule, unless the courts query parameter is given.
+     * In that case the groups are spread over that many courts in each of the time slots from the timeSlots
+     * query parameter (a comma separated list of PlayTimes), or every playable time slot if it's missing.
+     * @throws MatchMakingException if the parameters are invalid, or the groups don't fit on the courts
+     */
+    private List<Court> scheduleMatches(Request request, List<MatchGroup> matchGroups) {
+        String courtCountParam = request.queryParams(PARAM_COURTS);
+        if (courtCountParam == null) {
+            return MatchScheduler.scheduleMatches(matchGroups);
+        }
+
+        int courtCount;
+        try {
+            courtCount = Integer.parseInt(courtCountParam);
+        } catch (NumberFormatException e) {
+            throw new MatchMakingException(String.format(ERROR_INVALID_COURT_COUNT, courtCountParam));
+        }
+        if (courtCount < 1) {
+            throw new MatchMakingException(String.format(ERROR_INVALID_COURT_COUNT, courtCountParam));
+        }
+
+        return MatchScheduler.scheduleMatches(matchGroups, courtCount, getTimeSlots(request));
+    }
+
+    private List<PlayTime> getTimeSlots(Request request) {
+        List<PlayTime> timeSlots = new ArrayList<>();
+        String timeSlotsParam = request.queryParams(PARAM_TIME_SLOTS);
+        if (timeSlotsParam == null) {
+            for (PlayTime playTime : PlayTime.values()) {
+                if (playTime.isPlayable()) {
+                    timeSlots.add(playTime);
+                }
+            }
+            return timeSlots;
+        }
+
+        for (String timeSlotName : timeSlotsParam.split(TIME_SLOTS_SEPARATOR)) {
+            PlayTime timeSlot;
+            try {
+                timeSlot = PlayTime.valueOf(timeSlotName.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new MatchMakingException(String.format(ERROR_INVALID_TIME_SLOT, timeSlotName));
+            }
+            if (!timeSlot.isPlayable()) {
+                throw new MatchMakingException(String.format(ERROR_INVALID_TIME_SLOT, timeSlotName));
+            }
+            timeSlots.add(timeSlot);
+        }
+        return timeSlots;
+    }
+
     private String handleUpdateMatchGroupScores(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
         try {
@@ -1,64 +1,245 @@
 package ca.sfu.cmpt373.alpha.vrcrest.routes;
 
 import ca.sfu.cmpt373.alpha.vrcladder.ApplicationManager;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ValidationException;
+import ca.sfu.cmpt373.alpha.vrcladder.persistence.SessionManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.UserPrincipal;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
 import ca.sfu.cmpt373.alpha.vrcrest.security.RouteSignature;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.apache.shiro.authz.AuthorizationException;
 import org.eclipse.jetty.http.HttpStatus;
 import spark.Request;
 import spark.Spark;
 
+import javax.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class RestRouter {
 
     public static final String HEADER_AUTHORIZATION = "Authorization";
     public static final String PARAM_ID = ":id";
+    public static final String ATTRIBUTE_PRINCIPAL = "principal";
+
+    public static final String PARAM_LIMIT = "limit";
+    public static final String PARAM_AFTER = "after";
 
     public static final String JSON_PROPERTY_ERROR = "error";
+    public static final String JSON_PROPERTY_NEXT = "next";
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
     protected static final String ERROR_COULD_NOT_COMPLETE_REQUEST = "Request could not be completed.";
     protected static final String ERROR_MALFORMED_JSON = "The provided JSON in the request body is malformed.";
     protected static final String ERROR_INVALID_RESOURCE_ID = "The provided resource identifier is invalid.";
     public static final String ERROR_NOTIFICATION_FAILED = "User notification failed!";
+    protected static final String ERROR_INVALID_PAGE_SIZE = "The page size must be a number from 1 to " + MAX_PAGE_SIZE + ": %s";
+    protected static final String ERROR_INVALID_CURSOR = "The page cursor is invalid: %s";
+    protected static final String ERROR_INVALID_QUERY_PARAM = "Unknown value for %s: %s";
+    protected static final String ERROR_NONEXISTENT_CALLING_USER = "The user that the authorization token was " +
+            "issued to no longer exists.";
 
 
+    private SessionManager sessionManager;
     private SecurityManager securityManager;
     private UserManager userManager;
     private Gson gson;
 
     public RestRouter(ApplicationManager applicationManager) {
+        sessionManager = applicationManager.getSessionManager();
         securityManager = applicationManager.getSecurityManager();
         userManager = applicationManager.getUserManager();
         gson = buildGson();
     }
 
+    /**
+     * @return the calling user, as described by the request's authorization token. The authorization filter
+     * stores it on the request for every route that isn't public, so it is only read from the token here for
+     * public routes.
+     */
+    protected UserPrincipal extractPrincipalFromRequest(Request request) {
+        UserPrincipal principal = request.attribute(ATTRIBUTE_PRINCIPAL);
+        if (principal == null) {
+            String authorizationToken = request.headers(HEADER_AUTHORIZATION);
+            principal = securityManager.parsePrincipal(authorizationToken);
+            request.attribute(ATTRIBUTE_PRINCIPAL, principal);
+        }
+
+        return principal;
+    }
+
     protected UserId extractUserIdFromRequest(Request request) {
-        String authorizationToken = request.headers(HEADER_AUTHORIZATION);
-        return securityManager.parseToken(authorizationToken);
+        return extractPrincipalFromRequest(request).getUserId();
     }
 
     protected User extractUserFromRequest(Request request) {
-        String authorizationToken = request.headers(HEADER_AUTHORIZATION);
-        UserId userId = securityManager.parseToken(authorizationToken);
+        UserId userId = extractUserIdFromRequest(request);
         return userManager.getById(userId);
     }
 
     /**
      * Get the active (calling) user of the provided request and check if the callee is a
      * volunteer. If not, halt the request with a status code of 403 (Forbidden).
+     * The role is read from the authorization token, and only trusted if the user still exists with the token
+     * version the token was issued with. The user usually comes from the second-level cache. Otherwise the request
+     * is halted with a status code of 401 (Unauthorized), so that the user logs in again.
+     * Halting skips the after filters, so the request's unit of work is rolled back here instead.
      */
     protected void checkForVolunteerRole(Request request) {
-        User callingUser = extractUserFromRequest(request);
+        UserPrincipal callingUser = extractPrincipalFromRequest(request);
         if (callingUser.getUserRole() != UserRole.VOLUNTEER) {
+            sessionManager.endUnitOfWork(false);
             Spark.halt(HttpStatus.FORBIDDEN_403);
         }
+
+        String error;
+        try {
+            User user = userManager.getById(callingUser.getUserId());
+            securityManager.checkTokenVersion(callingUser, user);
+            return;
+        } catch (EntityNotFoundException ex) {
+            error = ERROR_NONEXISTENT_CALLING_USER;
+        } catch (AuthorizationException ex) {
+            error = ex.getMessage();
+        }
+
+        sessionManager.endUnitOfWork(false);
+        JsonObject responseBody = new JsonObject();
+        responseBody.addProperty(JSON_PROPERTY_ERROR, error);
+        Spark.halt(HttpStatus.UNAUTHORIZED_401, responseBody.toString());
+    }
+
+    /**
+     * Runs the callback once the request's changes have really been committed, and not at all if they are rolled
+     * back. Meant for state kept in memory that has to match what was saved.
+     * @see SessionManager#afterCompletion(Consumer)
+     */
+    protected void afterCommit(Runnable callback) {
+        sessionManager.afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                callback.run();
+            }
+        });
     }
 
+    /**
+     * Runs the callback if the request's changes are rolled back, to undo state kept in memory that was changed
+     * ahead of the commit.
+     * @see SessionManager#afterCompletion(Consumer)
+     */
+    protected void afterRollback(Runnable callback) {
+        sessionManager.afterCompletion(isCommitted -> {
+            if (!isCommitted) {
+                callback.run();
+            }
+        });
+    }
+
+
+    /**
+     * List requests are only paged if they ask for a page size, a cursor, or any of the given filters.
+     * Otherwise the whole list is returned, as it was before paging was added.
+     */
+    protected boolean isPagedRequest(Request request, String... filterParams) {
+        if (request.queryParams(PARAM_LIMIT) != null || request.queryParams(PARAM_AFTER) != null) {
+            return true;
+        }
+
+        for (String filterParam : filterParams) {
+            if (request.queryParams(filterParam) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs slow work that doesn't need the database, such as hashing or checking a password, without holding on to
+     * the request's database connection while it waits and runs, as long as the request hasn't written anything yet
+     * @see SessionManager#runWithoutConnection(Supplier)
+     */
+    protected <T> T runWithoutConnection(Supplier<T> work) {
+        return sessionManager.runWithoutConnection(work);
+    }
+
+    /**
+     * @return the limit query parameter, or the default page size if it's missing
+     * @throws ValidationException if the limit is not a number from 1 to MAX_PAGE_SIZE
+     */
+    protected int getPageSize(Request request) {
+        String limitParam = request.queryParams(PARAM_LIMIT);
+        if (limitParam == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        int pageSize;
+        try {
+            pageSize = Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format(ERROR_INVALID_PAGE_SIZE, limitParam));
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format(ERROR_INVALID_PAGE_SIZE, limitParam));
+        }
+        return pageSize;
+    }
+
+    /**
+     * @return the after query parameter of a list paged by ladder position, or null if it's missing
+     * @throws ValidationException if the cursor is not a number
+     */
+    protected Integer getLadderPositionCursor(Request request) {
+        String afterParam = request.queryParams(PARAM_AFTER);
+        if (afterParam == null) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(afterParam);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format(ERROR_INVALID_CURSOR, afterParam));
+        }
+    }
+
+    /**
+     * @return the named query parameter as a constant of the given enum, ignoring case, or null if it's missing
+     * @throws ValidationException if the parameter doesn't name one of the constants
+     */
+    protected <E extends Enum<E>> E getEnumQueryParam(Request request, String param, Class<E> enumType) {
+        String value = request.queryParams(param);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(enumType, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(String.format(ERROR_INVALID_QUERY_PARAM, param, value));
+        }
+    }
+
+    /**
+     * Adds a page of results to the response, where the results were fetched with a page size of one more than
+     * pageSize. If that extra result was found, it is left out, and the cursor of the last result in the page is
+     * added as the next property, to be sent back as the after parameter for the next page.
+     */
+    protected <T> void addPage(JsonObject responseBody, String jsonProperty, Gson gson, List<T> results, int pageSize,
+                               Function<T, String> getCursor) {
+        List<T> page = results.size() > pageSize ? results.subList(0, pageSize) : results;
+        responseBody.add(jsonProperty, gson.toJsonTree(page));
+        if (page.size() < results.size()) {
+            responseBody.addProperty(JSON_PROPERTY_NEXT, getCursor.apply(page.get(page.size() - 1)));
+        }
+    }
 
     protected Gson getGson() {
         return gson;
@@ -4,18 +4,23 @@ import ca.sfu.cmpt373.alpha.vrcladder.ApplicationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.DuplicateTeamMemberException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ExistingTeamException;
 import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TemplateNotFoundException;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ValidationException;
 import ca.sfu.cmpt373.alpha.vrcladder.notifications.NotificationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.notifications.logic.NotificationType;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamSummary;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceCard;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 import ca.sfu.cmpt373.alpha.vrcladder.util.GeneratedId;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewAttendanceStatusPayload;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewPlayTimePayload;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewTeamPayload;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.AttendanceCardGsonSerializer;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.TeamGsonSerializer;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.TeamSummaryGsonSerializer;
 import ca.sfu.cmpt373.alpha.vrcrest.security.RouteSignature;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -45,6 +50,9 @@ public class TeamRouter extends RestRouter {
     public static final String ROUTE_TEAM_ID_ATTENDANCE_PLAYTIME = ROUTE_TEAM_ID_ATTENDANCE + "/playtime";
     public static final String ROUTE_TEAM_ID_ATTENDANCE_STATUS = ROUTE_TEAM_ID_ATTENDANCE + "/status";
 
+    private static final String PARAM_PLAY_TIME = "playTime";
+    private static final String PARAM_ATTENDANCE_STATUS = "attendanceStatus";
+
     public static final String JSON_PROPERTY_TEAMS = "teams";
     public static final String JSON_PROPERTY_TEAM = "team";
 
@@ -93,6 +101,7 @@ public class TeamRouter extends RestRouter {
     protected Gson buildGson() {
         return new GsonBuilder()
             .registerTypeAdapter(Team.class, new TeamGsonSerializer())
+            .registerTypeAdapter(TeamSummary.class, new TeamSummaryGsonSerializer())
             .registerTypeAdapter(AttendanceCard.class, new AttendanceCardGsonSerializer())
             .registerTypeAdapter(NewTeamPayload.class, new NewTeamPayload.GsonDeserializer())
             .registerTypeAdapter(NewPlayTimePayload.class, new NewPlayTimePayload.GsonDeserializer())
@@ -104,10 +113,28 @@ public class TeamRouter extends RestRouter {
     private String handleGetAllTeams(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
 
-        List<Team> teams = teamManager.getAll();
-        responseBody.add(JSON_PROPERTY_TEAMS, getGson().toJsonTree(teams));
+        if (!isPagedRequest(request, PARAM_PLAY_TIME, PARAM_ATTENDANCE_STATUS)) {
+            List<TeamSummary> teams = teamManager.getAllSummaries();
+            responseBody.add(JSON_PROPERTY_TEAMS, getGson().toJsonTree(teams));
+
+            response.status(HttpStatus.OK_200);
+            return responseBody.toString();
+        }
+
+        try {
+            int pageSize = getPageSize(request);
+            PlayTime playTime = getEnumQueryParam(request, PARAM_PLAY_TIME, PlayTime.class);
+            AttendanceStatus attendanceStatus = getEnumQueryParam(request, PARAM_ATTENDANCE_STATUS, AttendanceStatus.class);
+            List<TeamSummary> teams = teamManager.getSummaries(playTime, attendanceStatus,
+                getLadderPositionCursor(request), pageSize + 1);
+            addPage(responseBody, JSON_PROPERTY_TEAMS, getGson(), teams, pageSize,
+                team -> String.valueOf(team.getLadderPosition()));
+            response.status(HttpStatus.OK_200);
+        } catch (ValidationException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.BAD_REQUEST_400);
+        }
 
-        response.status(HttpStatus.OK_200);
         return responseBody.toString();
     }
 
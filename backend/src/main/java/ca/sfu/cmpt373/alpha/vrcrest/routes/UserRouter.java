@@ -9,8 +9,10 @@ import ca.sfu.cmpt373.alpha.vrcladder.notifications.logic.NotificationType;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.PersistenceConstants;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.PlayerSummary;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.UserSummary;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.Password;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
@@ -19,8 +21,10 @@ import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.JsonProperties;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.NewUserPayload;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.requests.UpdateUserPayload;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.PlayerGsonSerializer;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.PlayerSummaryGsonSerializer;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.TeamGsonSerializer;
 import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.UserGsonSerializer;
+import ca.sfu.cmpt373.alpha.vrcrest.datatransfer.responses.UserSummaryGsonSerializer;
 import ca.sfu.cmpt373.alpha.vrcrest.security.RouteSignature;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -53,6 +57,8 @@ public class UserRouter extends RestRouter {
     public static final String ROUTE_USER_ID = "/user/" + PARAM_ID;
     private static final String ROUTE_USER_ID_TEAMS = ROUTE_USER_ID + "/teams";
 
+    private static final String PARAM_ROLE = "role";
+
     public static final String JSON_PROPERTY_USERS = "users";
     public static final String JSON_PROPERTY_USER = "user";
     public static final String JSON_PROPERTY_PLAYERS = "players";
@@ -114,6 +120,7 @@ public class UserRouter extends RestRouter {
         return new GsonBuilder()
             .registerTypeAdapter(Team.class, new TeamGsonSerializer())
             .registerTypeAdapter(User.class, new UserGsonSerializer())
+            .registerTypeAdapter(UserSummary.class, new UserSummaryGsonSerializer())
             .registerTypeAdapter(NewUserPayload.class, new NewUserPayload.GsonDeserializer())
             .registerTypeAdapter(UpdateUserPayload.class, new UpdateUserPayload.GsonDeserializer())
             .setPrettyPrinting()
@@ -123,6 +130,7 @@ public class UserRouter extends RestRouter {
     private Gson buildGsonForPlayer() {
         return new GsonBuilder()
             .registerTypeAdapter(User.class, new PlayerGsonSerializer())
+            .registerTypeAdapter(PlayerSummary.class, new PlayerSummaryGsonSerializer())
             .setPrettyPrinting()
             .create();
     }
@@ -132,9 +140,24 @@ public class UserRouter extends RestRouter {
 
         JsonObject responseBody = new JsonObject();
 
-        List<User> users = userManager.getAll();
-        responseBody.add(JSON_PROPERTY_USERS, getGson().toJsonTree(users));
-        response.status(HttpStatus.OK_200);
+        if (!isPagedRequest(request, PARAM_ROLE)) {
+            List<UserSummary> users = userManager.getAllSummaries();
+            responseBody.add(JSON_PROPERTY_USERS, getGson().toJsonTree(users));
+            response.status(HttpStatus.OK_200);
+
+            return responseBody.toString();
+        }
+
+        try {
+            int pageSize = getPageSize(request);
+            UserRole userRole = getEnumQueryParam(request, PARAM_ROLE, UserRole.class);
+            List<UserSummary> users = userManager.getSummaries(userRole, getUserIdCursor(request), pageSize + 1);
+            addPage(responseBody, JSON_PROPERTY_USERS, getGson(), users, pageSize, UserSummary::getUserId);
+            response.status(HttpStatus.OK_200);
+        } catch (ValidationException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.BAD_REQUEST_400);
+        }
 
         return responseBody.toString();
     }
@@ -142,13 +165,32 @@ public class UserRouter extends RestRouter {
     private String handleGetPlayers(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
 
-        List<User> players = userManager.getAllPlayers();
-        responseBody.add(JSON_PROPERTY_PLAYERS, playerGson.toJsonTree(players));
-        response.status(HttpStatus.OK_200);
+        if (!isPagedRequest(request)) {
+            List<PlayerSummary> players = userManager.getAllPlayerSummaries();
+            responseBody.add(JSON_PROPERTY_PLAYERS, playerGson.toJsonTree(players));
+            response.status(HttpStatus.OK_200);
+
+            return responseBody.toString();
+        }
+
+        try {
+            int pageSize = getPageSize(request);
+            List<PlayerSummary> players = userManager.getPlayerSummaries(getUserIdCursor(request), pageSize + 1);
+            addPage(responseBody, JSON_PROPERTY_PLAYERS, playerGson, players, pageSize, PlayerSummary::getUserId);
+            response.status(HttpStatus.OK_200);
+        } catch (ValidationException ex) {
+            responseBody.addProperty(JSON_PROPERTY_ERROR, ex.getMessage());
+            response.status(HttpStatus.BAD_REQUEST_400);
+        }
 
         return responseBody.toString();
     }
 
+    private UserId getUserIdCursor(Request request) {
+        String afterParam = request.queryParams(PARAM_AFTER);
+        return afterParam == null ? null : new UserId(afterParam);
+    }
+
     private String handleCreateUser(Request request, Response response) {
         JsonObject responseBody = new JsonObject();
         try {
@@ -157,7 +199,8 @@ public class UserRouter extends RestRouter {
                 checkForVolunteerRole(request);
             }
 
-            Password hashedPassword = securityManager.hashPassword(newUserPayload.getPassword());
+            Password hashedPassword = runWithoutConnection(() ->
+                securityManager.hashPassword(newUserPayload.getPassword()));
 
             User newUser = userManager.create(
                 newUserPayload.getUserId(),
@@ -287,7 +330,7 @@ public class UserRouter extends RestRouter {
                 updateUserPayload.getLastName(),
                 updateUserPayload.getEmailAddress(),
                 updateUserPayload.getPhoneNumber(),
-                securityManager.hashPassword(passwordHash));
+                runWithoutConnection(() -> securityManager.hashPassword(passwordHash)));
 
 
             responseBody.add(JSON_PROPERTY_USER, getGson().toJsonTree(existingUser));
@@ -332,6 +375,7 @@ public class UserRouter extends RestRouter {
             UserId userId = new UserId(requestedId);
 
             User deletedUser = userManager.deleteById(userId);
+            afterCommit(() -> securityManager.revokeAllTokens(userId));
             responseBody.add(JSON_PROPERTY_USER, getGson().toJsonTree(deletedUser));
             response.status(HttpStatus.OK_200);
         } catch (ValidationException ex) {
@@ -350,6 +394,7 @@ public class UserRouter extends RestRouter {
         try {
             User userToDelete = extractUserFromRequest(request);
             userManager.delete(userToDelete);
+            afterCommit(() -> securityManager.revokeAllTokens(userToDelete.getUserId()));
             responseBody.add(JSON_PROPERTY_USER, getGson().toJsonTree(userToDelete));
             response.status(HttpStatus.OK_200);
         } catch (ValidationException ex) {
@@ -395,7 +440,7 @@ public class UserRouter extends RestRouter {
             updateUserPayload.getLastName(),
             updateUserPayload.getEmailAddress(),
             updateUserPayload.getPhoneNumber(),
-            securityManager.hashPassword(passwordHash)
+            runWithoutConnection(() -> securityManager.hashPassword(passwordHash))
 
         );
 
@@ -0,0 +1,164 @@
+package ca.sfu.cmpt373.alpha.vrcrest.security;
+
+import spark.Request;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the address of the client that sent a request. Behind a load balancer, every request comes from the balancer's
+ * address, and the client's is only given in the X-Forwarded-For header. That header can be written by anyone, so it
+ * is only read when the request comes from one of the trusted proxies.
+ *
+ * Each proxy adds the address it received the request from to the end of the header, so the header is read from the
+ * end, skipping trusted proxies, and the first address that isn't one is the client's.
+ */
+public class ClientAddressResolver {
+
+    public static final String HEADER_FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final String ERROR_INVALID_TRUSTED_PROXY = "Trusted proxies must be IP addresses or CIDR ranges: %s";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String PREFIX_SEPARATOR = "/";
+    private static final String IPV6_SEPARATOR = ":";
+    //only literal addresses are parsed, so that InetAddress never looks up a host name given in a header
+    private static final Pattern IPV4_ADDRESS = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final List<AddressRange> trustedProxies;
+
+    /**
+     * @param trustedProxies a comma separated list of the IP addresses or CIDR ranges (ex: 10.0.0.0/8) of the proxies
+     *                       whose X-Forwarded-For headers are trusted, or an empty string to never read the header
+     * @throws IllegalArgumentException if one of the proxies isn't an IP address or CIDR range
+     */
+    public ClientAddressResolver(String trustedProxies) {
+        List<AddressRange> ranges = new ArrayList<>();
+        for (String trustedProxy : trustedProxies.split(LIST_SEPARATOR)) {
+            if (!trustedProxy.trim().isEmpty()) {
+                ranges.add(AddressRange.parse(trustedProxy.trim()));
+            }
+        }
+        this.trustedProxies = Collections.unmodifiableList(ranges);
+    }
+
+    public String getClientAddress(Request request) {
+        return getClientAddress(request.ip(), request.headers(HEADER_FORWARDED_FOR));
+    }
+
+    /**
+     * @param remoteAddress the address that the request was received from
+     * @param forwardedFor the X-Forwarded-For header, or null if the request didn't have one
+     */
+    String getClientAddress(String remoteAddress, String forwardedFor) {
+        if (forwardedFor == null || !isTrustedProxy(remoteAddress)) {
+            return remoteAddress;
+        }
+
+        String clientAddress = remoteAddress;
+        String[] forwardedAddresses = forwardedFor.split(LIST_SEPARATOR);
+        for (int i = forwardedAddresses.length - 1; i >= 0; i--) {
+            String forwardedAddress = forwardedAddresses[i].trim();
+            if (forwardedAddress.isEmpty()) {
+                continue;
+            }
+
+            clientAddress = forwardedAddress;
+            if (!isTrustedProxy(forwardedAddress)) {
+                break;
+            }
+        }
+
+        return clientAddress;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        if (trustedProxies.isEmpty()) {
+            return false;
+        }
+
+        byte[] addressBytes = parseAddress(address);
+        if (addressBytes == null) {
+            return false;
+        }
+
+        for (AddressRange trustedProxy : trustedProxies) {
+            if (trustedProxy.contains(addressBytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the bytes of an IPv4 or IPv6 address, or null if the string isn't one
+     */
+    private static byte[] parseAddress(String address) {
+        if (!IPV4_ADDRESS.matcher(address).matches() && !address.contains(IPV6_SEPARATOR)) {
+            return null;
+        }
+
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
+
+    private static class AddressRange {
+        private final byte[] address;
+        private final int prefixLength;
+
+        private AddressRange(byte[] address, int prefixLength) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+        }
+
+        static AddressRange parse(String range) {
+            String[] parts = range.split(PREFIX_SEPARATOR, 2);
+            byte[] address = parseAddress(parts[0]);
+            if (address == null) {
+                throw new IllegalArgumentException(String.format(ERROR_INVALID_TRUSTED_PROXY, range));
+            }
+
+            int maxPrefixLength = address.length * Byte.SIZE;
+            int prefixLength = maxPrefixLength;
+            if (parts.length > 1) {
+                try {
+                    prefixLength = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException(String.format(ERROR_INVALID_TRUSTED_PROXY, range));
+                }
+                if (prefixLength < 0 || prefixLength > maxPrefixLength) {
+                    throw new IllegalArgumentException(String.format(ERROR_INVALID_TRUSTED_PROXY, range));
+                }
+            }
+
+            return new AddressRange(address, prefixLength);
+        }
+
+        boolean contains(byte[] otherAddress) {
+            if (otherAddress.length != address.length) {
+                return false;
+            }
+
+            int fullBytes = prefixLength / Byte.SIZE;
+            for (int i = 0; i < fullBytes; i++) {
+                if (otherAddress[i] != address[i]) {
+                    return false;
+                }
+            }
+
+            int remainingBits = prefixLength % Byte.SIZE;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = (0xFF << (Byte.SIZE - remainingBits)) & 0xFF;
+            return (otherAddress[fullBytes] & mask) == (address[fullBytes] & mask);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package ca.sfu.cmpt373.alpha.vrcladder.ladder;
+
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic.MatchGroupGenerator;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.AttendanceStatus;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
+import ca.sfu.cmpt373.alpha.vrcladder.util.MockTeamGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that {@link Ladder} and {@link PrimitiveLadder} produce exactly the same rankings as the original
+ * algorithm (kept in {@link ReferenceLadder}), and that their rank lookups stay consistent with the ladder
+ */
+public class LadderRegressionTest {
+    private static final long RANDOM_SEED = 373;
+    private static final int RANDOM_LADDER_COUNT = 200;
+    private static final int MIN_RANDOM_LADDER_SIZE = 6;
+    private static final int MAX_RANDOM_LADDER_SIZE = 60;
+    private static final int LARGE_LADDER_SIZE = 2000;
+
+    /**
+     * Same fixture as {@link LadderVrcExamplesTest#testUpdateLadder()}
+     */
+    @Test
+    public void testVrcUpdateLadderExample() {
+        MockTeamGenerator.resetTeamCount();
+        List<Team> teams = MockTeamGenerator.generateTeams(19);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+        teams.get(2).getAttendanceCard().setPreferredPlayTime(PlayTime.NONE);
+        teams.get(0).getAttendanceCard().setAttendanceStatus(AttendanceStatus.NO_SHOW);
+        teams.get(4).getAttendanceCard().setAttendanceStatus(AttendanceStatus.NO_SHOW);
+
+        List<MatchGroup> matchGroups = new ArrayList<>();
+        matchGroups.add(new MatchGroup(teams.get(0), teams.get(1), teams.get(3)));
+        matchGroups.add(new MatchGroup(teams.get(4), teams.get(5), teams.get(6), teams.get(7)));
+        for (MatchGroup matchGroup : matchGroups) {
+            matchGroup.getScoreCard().setRankedTeams(matchGroup.getTeams());
+        }
+
+        assertSameAsReference(teams, matchGroups);
+    }
+
+    /**
+     * Same fixture as {@link LadderVrcExamplesTest#testVrcPictureExample()}
+     */
+    @Test
+    public void testVrcPictureExample() {
+        MockTeamGenerator.resetTeamCount();
+        List<Team> teams = MockTeamGenerator.generateTeams(20);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+        int[] nonAttendingTeamRankings = new int[]{4, 5, 7, 8, 11, 12, 15};
+        for (int nonAttendingTeamRanking : nonAttendingTeamRankings) {
+            teams.get(nonAttendingTeamRanking - 1).getAttendanceCard().setPreferredPlayTime(PlayTime.NONE);
+        }
+        teams.get(2).getAttendanceCard().setAttendanceStatus(AttendanceStatus.NO_SHOW);
+
+        List<MatchGroup> matchGroups = MatchGroupGenerator.generateMatchGroupings(teams);
+        for (MatchGroup matchGroup : matchGroups) {
+            matchGroup.getScoreCard().setRankedTeams(matchGroup.getTeams());
+        }
+        MatchGroup thirdMatchGroup = matchGroups.get(2);
+        List<Team> rankedTeams = new ArrayList<>();
+        rankedTeams.add(thirdMatchGroup.getTeam2());
+        rankedTeams.add(thirdMatchGroup.getTeam3());
+        rankedTeams.add(thirdMatchGroup.getTeam1());
+        thirdMatchGroup.getScoreCard().setRankedTeams(rankedTeams);
+
+        assertSameAsReference(teams, matchGroups);
+    }
+
+    @Test
+    public void testRandomLadders() {
+        Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < RANDOM_LADDER_COUNT; i++) {
+            MockTeamGenerator.resetTeamCount();
+            List<Team> teams = generateRandomLadder(random, MIN_RANDOM_LADDER_SIZE + random.nextInt(MAX_RANDOM_LADDER_SIZE));
+            List<MatchGroup> matchGroups = MatchGroupGenerator.generateMatchGroupings(teams);
+            for (MatchGroup matchGroup : matchGroups) {
+                List<Team> rankedTeams = new ArrayList<>(matchGroup.getTeams());
+                Collections.shuffle(rankedTeams, random);
+                matchGroup.getScoreCard().setRankedTeams(rankedTeams);
+            }
+
+            assertSameAsReference(teams, matchGroups);
+        }
+    }
+
+    @Test
+    public void testLargeRandomLadder() {
+        Random random = new Random(RANDOM_SEED);
+        MockTeamGenerator.resetTeamCount();
+        List<Team> teams = generateRandomLadder(random, LARGE_LADDER_SIZE);
+        List<MatchGroup> matchGroups = MatchGroupGenerator.generateMatchGroupings(teams);
+        for (MatchGroup matchGroup : matchGroups) {
+            List<Team> rankedTeams = new ArrayList<>(matchGroup.getTeams());
+            Collections.shuffle(rankedTeams, random);
+            matchGroup.getScoreCard().setRankedTeams(rankedTeams);
+        }
+
+        assertSameAsReference(teams, matchGroups);
+    }
+
+    @Test
+    public void testRankOfTeam() {
+        MockTeamGenerator.resetTeamCount();
+        List<Team> teams = generateRandomLadder(new Random(RANDOM_SEED), MAX_RANDOM_LADDER_SIZE);
+        Ladder ladder = new Ladder(teams);
+        for (int i = 0; i < teams.size(); i++) {
+            Assert.assertEquals(i + 1, ladder.rankOfTeam(teams.get(i)));
+        }
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testDuplicateTeams() {
+        new Ladder(generateTeamsWithDuplicate());
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testPrimitiveLadderDuplicateTeams() {
+        new PrimitiveLadder(generateTeamsWithDuplicate());
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testPrimitiveLadderTeamNotOnLadder() {
+        List<Team> teams = MockTeamGenerator.generateTeams(6);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+
+        List<MatchGroup> matchGroups = new ArrayList<>();
+        matchGroups.add(new MatchGroup(teams.get(0), teams.get(1), teams.get(2)));
+        matchGroups.add(new MatchGroup(teams.get(3), teams.get(4), teams.get(5)));
+        for (MatchGroup matchGroup : matchGroups) {
+            matchGroup.getScoreCard().setRankedTeams(matchGroup.getTeams());
+        }
+
+        //the teams in the second group aren't on the ladder, so it can't be updated
+        new PrimitiveLadder(teams.subList(0, 3)).updateLadder(matchGroups);
+    }
+
+    private List<Team> generateTeamsWithDuplicate() {
+        Team team = MockTeamGenerator.generateTeam();
+        List<Team> teams = MockTeamGenerator.generateTeams(3);
+        teams.add(team);
+        teams.add(team);
+        return teams;
+    }
+
+    private List<Team> generateRandomLadder(Random random, int teamCount) {
+        AttendanceStatus[] attendanceStatuses = AttendanceStatus.values();
+        List<Team> teams = MockTeamGenerator.generateTeams(teamCount);
+        int attendingCount = 0;
+        for (Team team : teams) {
+            boolean isAttending = random.nextInt(3) != 0;
+            PlayTime playTime = random.nextBoolean() ? PlayTime.TIME_SLOT_A : PlayTime.TIME_SLOT_B;
+            team.getAttendanceCard().setPreferredPlayTime(isAttending ? playTime : PlayTime.NONE);
+            team.getAttendanceCard().setAttendanceStatus(attendanceStatuses[random.nextInt(attendanceStatuses.length)]);
+            if (isAttending) {
+                attendingCount++;
+            }
+        }
+
+        //1, 2 or 5 attending teams cannot be sorted into groups of 3 or 4, so have a few more teams attend
+        for (int i = 0; i < teams.size() && (attendingCount < MatchGroup.MIN_NUM_TEAMS || attendingCount == 5); i++) {
+            if (!teams.get(i).getAttendanceCard().isAttending()) {
+                teams.get(i).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+                attendingCount++;
+            }
+        }
+        return teams;
+    }
+
+    private void assertSameAsReference(List<Team> teams, List<MatchGroup> matchGroups) {
+        ReferenceLadder referenceLadder = new ReferenceLadder(teams);
+        referenceLadder.updateLadder(matchGroups);
+        Ladder ladder = new Ladder(teams);
+        ladder.updateLadder(matchGroups);
+
+        PrimitiveLadder primitiveLadder = new PrimitiveLadder(teams);
+        primitiveLadder.updateLadder(matchGroups);
+
+        List<Team> expectedTeams = referenceLadder.getLadder();
+        Assert.assertEquals(expectedTeams, ladder.getLadder());
+        Assert.assertEquals(expectedTeams, primitiveLadder.getLadder());
+        for (int i = 0; i < expectedTeams.size(); i++) {
+            Assert.assertEquals(i + 1, ladder.rankOfTeam(expectedTeams.get(i)));
+            Assert.assertEquals(i + 1, primitiveLadder.rankOfTeam(expectedTeams.get(i)));
+        }
+
+        for (LadderEngine engine : LadderEngine.values()) {
+            Assert.assertEquals(expectedTeams, engine.updateLadder(teams, matchGroups));
+        }
+    }
+}
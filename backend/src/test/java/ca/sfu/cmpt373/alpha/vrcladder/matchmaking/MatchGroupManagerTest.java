@@ -1,13 +1,18 @@
 package ca.sfu.cmpt373.alpha.vrcladder.matchmaking;
 
 import ca.sfu.cmpt373.alpha.vrcladder.BaseTest;
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic.MatchGroupGenerator;
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic.MatchScheduler;
 import ca.sfu.cmpt373.alpha.vrcladder.scores.ScoreCard;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockMatchGroupGenerator;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockTeamGenerator;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
+import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -15,6 +20,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -28,6 +34,17 @@ public class MatchGroupManagerTest extends BaseTest {
 
     private static final int FOURTH_TEAM_INDEX = 3;
 
+    //enough groups that loading them in batches of SessionManager.BATCH_FETCH_SIZE would take more statements
+    private static final int SCHEDULED_TEAM_COUNT = 240;
+    private static final int MAX_MATCH_GROUPS_STATEMENTS = 3;
+    private static final int MAX_SCHEDULE_STATEMENTS = 4;
+    private static final int PAGE_SIZE = 7;
+    private static final int MAX_DELETE_COURTS_STATEMENTS = 2;
+    private static final int MAX_DELETE_MATCH_GROUPS_STATEMENTS = 5;
+    private static final List<String> SCHEDULE_TABLES = Arrays.asList("COURT", "COURT_MATCH_GROUP", "MATCH_GROUP",
+        "MATCH_GROUP_TEAM", "ScoreCard", "ScoreCard_TEAM");
+    private static final int MAX_PAGE_STATEMENTS = MAX_MATCH_GROUPS_STATEMENTS + 1;
+
     @Before
     public void setUp() {
         matchGroupManager = new MatchGroupManager(sessionManager);
@@ -105,6 +122,183 @@ public class MatchGroupManagerTest extends BaseTest {
         Assert.assertEquals(team3, retrievedNewMatchGroup.getTeam3());
     }
 
+    @Test
+    public void testCreateAll() {
+        MatchGroup threeTeamMatchGroup = new MatchGroup(threeTeamsFixture);
+        MatchGroup fourTeamMatchGroup = new MatchGroup(fourTeamsFixture);
+        Court court = new Court();
+        court.scheduleMatch(threeTeamMatchGroup, PlayTime.TIME_SLOT_A);
+        court.scheduleMatch(fourTeamMatchGroup, PlayTime.TIME_SLOT_B);
+
+        matchGroupManager.createAll(Collections.singletonList(court));
+
+        Session session = sessionManager.getSession();
+        Court retrievedCourt = session.get(Court.class, court.getId());
+        MatchGroup retrievedThreeTeamMatchGroup = session.get(MatchGroup.class, threeTeamMatchGroup.getId());
+        ScoreCard retrievedScoreCard = session.get(ScoreCard.class, fourTeamMatchGroup.getScoreCard().getId());
+        session.close();
+
+        Assert.assertEquals(threeTeamMatchGroup, retrievedCourt.getScheduledMatch(PlayTime.TIME_SLOT_A));
+        Assert.assertEquals(fourTeamMatchGroup, retrievedCourt.getScheduledMatch(PlayTime.TIME_SLOT_B));
+        Assert.assertEquals(threeTeamsFixture, retrievedThreeTeamMatchGroup.getTeams());
+        Assert.assertNotNull(retrievedScoreCard);
+    }
+
+    @Test
+    public void testLoadScheduleInBoundedStatements() {
+        List<Team> teams = MockTeamGenerator.generateTeams(SCHEDULED_TEAM_COUNT);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(teams, session);
+        transaction.commit();
+        session.close();
+
+        List<MatchGroup> matchGroups = MatchGroupGenerator.generateMatchGroupings(teams);
+        for (MatchGroup matchGroup : matchGroups) {
+            matchGroup.getScoreCard().setRankedTeams(matchGroup.getTeams());
+        }
+        List<Court> courts = matchGroupManager.createAll(MatchScheduler.scheduleMatches(matchGroups));
+
+        //nothing can come from the second-level cache, so every entity has to be loaded by the counted statements
+        Statistics statistics = sessionManager.getStatistics();
+        sessionManager.evictAllCacheRegions();
+        statistics.clear();
+        List<MatchGroup> retrievedMatchGroups = matchGroupManager.getAll();
+        for (MatchGroup matchGroup : retrievedMatchGroups) {
+            for (Team team : matchGroup.getTeams()) {
+                team.getFirstPlayer().getFirstName();
+                team.getSecondPlayer().getFirstName();
+            }
+        }
+        Assert.assertEquals(matchGroups.size() + 2, retrievedMatchGroups.size());
+        Assert.assertTrue(statistics.getPrepareStatementCount() <= MAX_MATCH_GROUPS_STATEMENTS);
+
+        sessionManager.evictAllCacheRegions();
+        statistics.clear();
+        List<Court> retrievedCourts = new CourtManager(sessionManager).getAll();
+        for (Court court : retrievedCourts) {
+            for (MatchGroup matchGroup : court.getScheduledMatches().values()) {
+                matchGroup.getScoreCard().getRankedTeams();
+                for (Team team : matchGroup.getTeams()) {
+                    team.getFirstPlayer().getFirstName();
+                    team.getSecondPlayer().getFirstName();
+                }
+            }
+        }
+        Assert.assertEquals(courts.size(), retrievedCourts.size());
+        Assert.assertTrue(statistics.getPrepareStatementCount() <= MAX_SCHEDULE_STATEMENTS);
+    }
+
+    @Test
+    public void testGetPages() {
+        List<Team> teams = MockTeamGenerator.generateTeams(SCHEDULED_TEAM_COUNT);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(teams, session);
+        transaction.commit();
+        session.close();
+        matchGroupManager.createAll(MatchScheduler.scheduleMatches(MatchGroupGenerator.generateMatchGroupings(teams)));
+
+        Statistics statistics = sessionManager.getStatistics();
+        List<MatchGroup> pagedMatchGroups = new ArrayList<>();
+        Integer afterLadderPosition = null;
+        List<MatchGroup> page;
+        do {
+            sessionManager.evictAllCacheRegions();
+            statistics.clear();
+            page = matchGroupManager.getPage(afterLadderPosition, PAGE_SIZE);
+            for (MatchGroup matchGroup : page) {
+                for (Team team : matchGroup.getTeams()) {
+                    team.getFirstPlayer().getFirstName();
+                }
+            }
+            Assert.assertTrue(page.size() <= PAGE_SIZE);
+            Assert.assertTrue(statistics.getPrepareStatementCount() <= MAX_PAGE_STATEMENTS);
+
+            pagedMatchGroups.addAll(page);
+            if (!page.isEmpty()) {
+                List<Team> lastTeams = page.get(page.size() - 1).getTeams();
+                afterLadderPosition = lastTeams.get(lastTeams.size() - 1).getLadderPosition().getValue();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        Assert.assertEquals(matchGroupManager.getAll(), pagedMatchGroups);
+    }
+
+    @Test
+    public void testDeleteAll() {
+        List<Team> teams = MockTeamGenerator.generateTeams(SCHEDULED_TEAM_COUNT);
+        for (Team team : teams) {
+            team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        }
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(teams, session);
+        transaction.commit();
+        session.close();
+        List<MatchGroup> matchGroups = MatchGroupGenerator.generateMatchGroupings(teams);
+        for (MatchGroup matchGroup : matchGroups) {
+            matchGroup.getScoreCard().setRankedTeams(matchGroup.getTeams());
+        }
+        List<Court> courts = matchGroupManager.createAll(MatchScheduler.scheduleMatches(matchGroups));
+        long teamCount = countRows("TEAM");
+
+        Statistics statistics = sessionManager.getStatistics();
+        statistics.clear();
+        Assert.assertEquals(courts.size(), new CourtManager(sessionManager).deleteAll());
+        Assert.assertTrue(statistics.getPrepareStatementCount() <= MAX_DELETE_COURTS_STATEMENTS);
+
+        statistics.clear();
+        Assert.assertEquals(matchGroups.size() + 2, matchGroupManager.deleteAll());
+        Assert.assertTrue(statistics.getPrepareStatementCount() <= MAX_DELETE_MATCH_GROUPS_STATEMENTS);
+
+        for (String table : SCHEDULE_TABLES) {
+            Assert.assertEquals(0, countRows(table));
+        }
+        Assert.assertEquals(teamCount, countRows("TEAM"));
+        Assert.assertTrue(matchGroupManager.getAll().isEmpty());
+    }
+
+    private long countRows(String table) {
+        Session session = sessionManager.getSession();
+        Number rowCount = (Number) session.createSQLQuery("select count(*) from " + table).uniqueResult();
+        session.close();
+        return rowCount.longValue();
+    }
+
+    @Test
+    public void testCreateAllIsAtomic() {
+        MatchGroup savedTeamsMatchGroup = new MatchGroup(fourTeamsFixture);
+        Court validCourt = new Court();
+        validCourt.scheduleMatch(savedTeamsMatchGroup, PlayTime.TIME_SLOT_A);
+
+        //the teams in this MatchGroup were never saved, so it can't be inserted
+        MatchGroup unsavedTeamsMatchGroup = MockMatchGroupGenerator.generateThreeTeamMatchGroup();
+        Court invalidCourt = new Court();
+        invalidCourt.scheduleMatch(unsavedTeamsMatchGroup, PlayTime.TIME_SLOT_A);
+
+        try {
+            matchGroupManager.createAll(Arrays.asList(validCourt, invalidCourt));
+            Assert.fail();
+        } catch (HibernateException e) {
+            //expected
+        }
+
+        Session session = sessionManager.getSession();
+        Court retrievedCourt = session.get(Court.class, validCourt.getId());
+        MatchGroup retrievedMatchGroup = session.get(MatchGroup.class, savedTeamsMatchGroup.getId());
+        session.close();
+
+        Assert.assertNull(retrievedCourt);
+        Assert.assertNull(retrievedMatchGroup);
+    }
+
     @Test
     public void testDeleteMatchGroup() {
         MatchGroup originalMatchGroup = matchGroupManager.deleteById(fourTeamMatchGroupFixture.getId());
@@ -144,6 +338,7 @@ public class MatchGroupManagerTest extends BaseTest {
     public void testRemoveTeamFromMatchGroup() {
         for (int i = 0; i < fourTeamMatchGroupFixture.getTeams().size(); i++) {
             tearDown();
+            tearDownBase();
             setUpBase();
             setUp();
             testRemoveTeamFromMatchGroup(fourTeamMatchGroupFixture.getTeams().get(i));
@@ -130,8 +130,7 @@ public class CourtManagerTest extends BaseTest {
         Assert.assertEquals(retrievedNewCourt, newCourt);
         Assert.assertEquals(retrievedCourtFixture, courtFixture);
 
-        courtManager.deleteAll();
-
+        Assert.assertEquals(2, courtManager.deleteAll());
 
         Assert.assertEquals(0, courtManager.getAll().size());
         //TODO: make this work without depending on courtManager.getAll()
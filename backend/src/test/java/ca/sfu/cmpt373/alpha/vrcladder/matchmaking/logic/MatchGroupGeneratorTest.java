@@ -4,11 +4,14 @@ import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MatchMakingException;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.MockDatabase;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class MatchGroupGeneratorTest {
     private static final int IMPOSSIBLE_TEAM_COUNT = 5;
@@ -85,4 +88,55 @@ public class MatchGroupGeneratorTest {
         //it's impossible to sort 5 teams into groups of 3 or 4
         MatchGroupGenerator.generateMatchGroupings(MockDatabase.getRankedLadderTeams(IMPOSSIBLE_TEAM_COUNT));
     }
+
+    @Test
+    public void testGroupsFollowLadderOrder() {
+        List<Team> teams = MockDatabase.getRankedLadderTeams(MAX_TEST_TEAM_COUNT);
+        //leave every third team out of this week's matches
+        List<Team> attendingTeams = new ArrayList<>();
+        for (int i = 0; i < teams.size(); i++) {
+            if (i % 3 == 0) {
+                teams.get(i).getAttendanceCard().setPreferredPlayTime(PlayTime.NONE);
+            } else {
+                teams.get(i).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+                attendingTeams.add(teams.get(i));
+            }
+        }
+
+        List<Team> groupedTeams = new ArrayList<>();
+        for (MatchGroup matchGroup : MatchGroupGenerator.generateMatchGroupings(teams)) {
+            groupedTeams.addAll(matchGroup.getTeams());
+        }
+        Assert.assertEquals(attendingTeams, groupedTeams);
+    }
+
+    @Test
+    public void testStreamMatchesList() {
+        for (int teamCount = 0; teamCount < MAX_TEST_TEAM_COUNT; teamCount++) {
+            if (teamCount == 1 || teamCount == 2 || teamCount == IMPOSSIBLE_TEAM_COUNT) {
+                continue;
+            }
+            List<Team> teams = MockDatabase.getRankedLadderTeams(teamCount);
+
+            List<List<Team>> expectedGroups = MatchGroupGenerator.generateMatchGroupings(teams).stream()
+                    .map(MatchGroup::getTeams)
+                    .collect(Collectors.toList());
+            List<List<Team>> streamedGroups = MatchGroupGenerator.streamMatchGroupings(teams)
+                    .map(MatchGroup::getTeams)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(expectedGroups, streamedGroups);
+            Assert.assertEquals(expectedGroups.size(), MatchGroupGenerator.streamMatchGroupings(teams).spliterator().getExactSizeIfKnown());
+        }
+    }
+
+    @Test
+    public void testIteratorFailsBeforeGeneratingGroups() {
+        Iterator<MatchGroup> matchGroups = null;
+        try {
+            matchGroups = MatchGroupGenerator.matchGroupIterator(MockDatabase.getRankedLadderTeams(IMPOSSIBLE_TEAM_COUNT));
+        } catch (MatchMakingException e) {
+            //expected
+        }
+        Assert.assertNull(matchGroups);
+    }
 }
@@ -1,12 +1,21 @@
 package ca.sfu.cmpt373.alpha.vrcladder.matchmaking.logic;
 
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.MatchMakingException;
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.PlayTimeException;
 import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.Court;
+import ca.sfu.cmpt373.alpha.vrcladder.matchmaking.MatchGroup;
 import ca.sfu.cmpt373.alpha.vrcladder.persistence.MockDatabase;
+import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.attendance.PlayTime;
+import ca.sfu.cmpt373.alpha.vrcladder.util.MockTeamGenerator;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 
 public class MatchSchedulerTest {
@@ -43,4 +52,178 @@ public class MatchSchedulerTest {
         Assert.assertTrue(Math.abs(slotATeamCount - slotBTeamCount) <= 1);
         Assert.assertTrue(slotATeamCount + slotBTeamCount == 13);
     }
+
+    @Test
+    public void testTwoTimesFollowsPreferences() {
+        List<MatchGroup> matchGroups = generateMatchGroups(14, PlayTime.TIME_SLOT_A);
+        for (int i = 0; i < 7; i++) {
+            setPreferredPlayTime(matchGroups.get(i * 2), PlayTime.TIME_SLOT_B);
+        }
+
+        List<Court> courts = MatchScheduler.scheduleMatches(matchGroups);
+
+        for (Court court : courts) {
+            for (PlayTime playTime : court.getScheduledMatches().keySet()) {
+                Assert.assertEquals(court.getScheduledMatch(playTime).getPreferredGroupPlayTime(), playTime);
+            }
+        }
+    }
+
+    @Test
+    public void testScheduleOnCourts() {
+        int courtCount = 3;
+        List<PlayTime> timeSlots = Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B);
+        List<MatchGroup> matchGroups = generateMatchGroups(5, PlayTime.TIME_SLOT_A);
+
+        List<Court> courts = MatchScheduler.scheduleMatches(matchGroups, courtCount, timeSlots);
+
+        //only 3 groups fit in the preferred slot, and the rest are moved to the other one in ladder order
+        Assert.assertEquals(courtCount, courts.size());
+        for (int i = 0; i < courtCount; i++) {
+            Assert.assertEquals(matchGroups.get(i), courts.get(i).getScheduledMatch(PlayTime.TIME_SLOT_A));
+        }
+        Assert.assertEquals(matchGroups.get(3), courts.get(0).getScheduledMatch(PlayTime.TIME_SLOT_B));
+        Assert.assertEquals(matchGroups.get(4), courts.get(1).getScheduledMatch(PlayTime.TIME_SLOT_B));
+        Assert.assertTrue(courts.get(2).isPlayTimeFree(PlayTime.TIME_SLOT_B));
+    }
+
+    @Test
+    public void testScheduleOnlyUsesNeededCourts() {
+        List<MatchGroup> matchGroups = generateMatchGroups(2, PlayTime.TIME_SLOT_B);
+
+        List<Court> courts = MatchScheduler.scheduleMatches(matchGroups, 10, Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B));
+
+        Assert.assertEquals(2, courts.size());
+        for (Court court : courts) {
+            Assert.assertTrue(court.isPlayTimeFree(PlayTime.TIME_SLOT_A));
+            Assert.assertFalse(court.isPlayTimeFree(PlayTime.TIME_SLOT_B));
+        }
+    }
+
+    @Test (expected = MatchMakingException.class)
+    public void testNotEnoughCourts() {
+        MatchScheduler.scheduleMatches(generateMatchGroups(5, PlayTime.TIME_SLOT_A), 2, Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B));
+    }
+
+    @Test (expected = PlayTimeException.class)
+    public void testUnplayableTimeSlot() {
+        MatchScheduler.scheduleMatches(generateMatchGroups(1, PlayTime.TIME_SLOT_A), 1, Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.NONE));
+    }
+
+    @Test
+    public void testAssignmentIsOptimal() {
+        Random random = new Random(373);
+        List<PlayTime> timeSlots = Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B);
+        for (int test = 0; test < 100; test++) {
+            int groupCount = 1 + random.nextInt(10);
+            int slotCapacity = (groupCount + 1) / 2 + random.nextInt(3);
+            List<MatchGroup> matchGroups = generateRandomMatchGroups(random, groupCount);
+
+            int[] groupSlots = MatchScheduler.assignTimeSlots(matchGroups, timeSlots, slotCapacity);
+
+            int[] slotSizes = new int[timeSlots.size()];
+            for (int slot : groupSlots) {
+                slotSizes[slot]++;
+            }
+            for (int slotSize : slotSizes) {
+                Assert.assertTrue(slotSize <= slotCapacity);
+            }
+            Assert.assertEquals(findBestScore(matchGroups, timeSlots, slotCapacity), score(matchGroups, timeSlots, groupSlots));
+        }
+    }
+
+    @Test
+    public void testManyGroups() {
+        Random random = new Random(373);
+        List<PlayTime> timeSlots = Arrays.asList(PlayTime.TIME_SLOT_A, PlayTime.TIME_SLOT_B);
+        int groupCount = 500;
+        int courtCount = 300;
+        List<MatchGroup> matchGroups = generateRandomMatchGroups(random, groupCount);
+
+        List<Court> courts = MatchScheduler.scheduleMatches(matchGroups, courtCount, timeSlots);
+
+        int scheduledCount = 0;
+        for (Court court : courts) {
+            scheduledCount += court.getScheduledMatches().size();
+        }
+        Assert.assertTrue(courts.size() <= courtCount);
+        Assert.assertEquals(groupCount, scheduledCount);
+    }
+
+    private List<MatchGroup> generateMatchGroups(int groupCount, PlayTime playTime) {
+        List<MatchGroup> matchGroups = new ArrayList<>();
+        for (int i = 0; i < groupCount; i++) {
+            MatchGroup matchGroup = new MatchGroup(MockTeamGenerator.generateTeams(MatchGroup.MIN_NUM_TEAMS));
+            setPreferredPlayTime(matchGroup, playTime);
+            matchGroups.add(matchGroup);
+        }
+        return matchGroups;
+    }
+
+    private List<MatchGroup> generateRandomMatchGroups(Random random, int groupCount) {
+        List<MatchGroup> matchGroups = new ArrayList<>();
+        for (int i = 0; i < groupCount; i++) {
+            int teamCount = MatchGroup.MIN_NUM_TEAMS + random.nextInt(2);
+            List<Team> teams = MockTeamGenerator.generateTeams(teamCount);
+            for (Team team : teams) {
+                team.getAttendanceCard().setPreferredPlayTime(random.nextBoolean() ? PlayTime.TIME_SLOT_A : PlayTime.TIME_SLOT_B);
+            }
+            matchGroups.add(new MatchGroup(teams));
+        }
+        return matchGroups;
+    }
+
+    private void setPreferredPlayTime(MatchGroup matchGroup, PlayTime playTime) {
+        for (Team team : matchGroup.getTeams()) {
+            team.getAttendanceCard().setPreferredPlayTime(playTime);
+        }
+    }
+
+    /**
+     * Scores an assignment by teams at their preferred time first, and groups at their preferred time second
+     */
+    private List<Integer> score(List<MatchGroup> matchGroups, List<PlayTime> timeSlots, int[] groupSlots) {
+        int teamsAtPreferredTime = 0;
+        int groupsAtPreferredTime = 0;
+        for (int i = 0; i < matchGroups.size(); i++) {
+            PlayTime timeSlot = timeSlots.get(groupSlots[i]);
+            for (Team team : matchGroups.get(i).getTeams()) {
+                if (team.getAttendanceCard().getPreferredPlayTime() == timeSlot) {
+                    teamsAtPreferredTime++;
+                }
+            }
+            if (matchGroups.get(i).getPreferredGroupPlayTime() == timeSlot) {
+                groupsAtPreferredTime++;
+            }
+        }
+        return Arrays.asList(teamsAtPreferredTime, groupsAtPreferredTime);
+    }
+
+    private List<Integer> findBestScore(List<MatchGroup> matchGroups, List<PlayTime> timeSlots, int slotCapacity) {
+        List<Integer> bestScore = Arrays.asList(-1, -1);
+        int[] groupSlots = new int[matchGroups.size()];
+        int assignmentCount = (int) Math.pow(timeSlots.size(), matchGroups.size());
+        for (int assignment = 0; assignment < assignmentCount; assignment++) {
+            int[] slotSizes = new int[timeSlots.size()];
+            int remainder = assignment;
+            for (int i = 0; i < groupSlots.length; i++) {
+                groupSlots[i] = remainder % timeSlots.size();
+                remainder /= timeSlots.size();
+                slotSizes[groupSlots[i]]++;
+            }
+            boolean fits = true;
+            for (int slotSize : slotSizes) {
+                fits &= slotSize <= slotCapacity;
+            }
+            if (!fits) {
+                continue;
+            }
+
+            List<Integer> score = score(matchGroups, timeSlots, groupSlots);
+            if (score.get(0) > bestScore.get(0) || (score.get(0).equals(bestScore.get(0)) && score.get(1) > bestScore.get(1))) {
+                bestScore = score;
+            }
+        }
+        return bestScore;
+    }
 }
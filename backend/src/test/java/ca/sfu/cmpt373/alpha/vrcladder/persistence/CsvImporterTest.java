@@ -4,25 +4,41 @@ import ca.sfu.cmpt373.alpha.vrcladder.BaseTest;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.TeamManager;
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
+import ca.sfu.cmpt373.alpha.vrcladder.users.UserBuilder;
 import ca.sfu.cmpt373.alpha.vrcladder.users.UserManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.Password;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.SecurityManager;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
-import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.impl.crypto.MacProvider;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CsvImporterTest extends BaseTest {
+    private static final String DEFAULT_PASSWORD = "123";
+    private static final String ERROR_ADDING_TEAM = "There was an error adding team on row";
     private static final String CSV_COLUMNS_HEADING = "Last Name,First Name,Player #,Status,,Last Name,First Name,Player #,Status,Ranking\n";
     private SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.HS256;
     private Key signatureKey = MacProvider.generateKey();
     private SecurityManager securityManager = new SecurityManager(signatureAlgorithm, signatureKey);
-    private SessionManager sessionManager = new SessionManager(new ConfigurationManager());
-    private UserManager userManager = new UserManager(sessionManager);
-    private TeamManager teamManager = new TeamManager(sessionManager);
+    private UserManager userManager;
+    private TeamManager teamManager;
+
+    @Before
+    public void setUp() {
+        userManager = new UserManager(sessionManager);
+        teamManager = new TeamManager(sessionManager);
+    }
 
     @Test
     public void testAddTeam() {
@@ -70,4 +86,83 @@ public class CsvImporterTest extends BaseTest {
         Assert.assertEquals(bob, secondTeam.getFirstPlayer());
         Assert.assertEquals(cindy, secondTeam.getSecondPlayer());
     }
+
+    @Test
+    public void testImportInChunks() throws IOException {
+        String csvString = CSV_COLUMNS_HEADING +
+                "A,Anne,1001,,&,B,Ben,1002,,1\n" +
+                "C,Carl,1003,,&,A,Anne,1001,,2\n" +
+                "B,Ben,1002,,&,A,Anne,1001,,3\n" +
+                "D,Dana,1004,,&,C,Carl,1003,,4\n" +
+                "not a row\n" +
+                "E,Eve,1005,,&,F,Fay,1006,,5\n";
+        CsvImporter csvImporter = new CsvImporter(userManager, teamManager, securityManager, 2);
+        String errorLog = csvImporter.insertData(new ByteArrayInputStream(csvString.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(ERROR_ADDING_TEAM + 3 + "\n" + ERROR_ADDING_TEAM + 5 + "\n", errorLog);
+        assertTeams(Arrays.asList("1001", "1002", "1003", "1001", "1004", "1003", "1005", "1006"));
+        Assert.assertEquals(6, userManager.getAll().size());
+    }
+
+    @Test
+    public void testImportRowsThatFailSeparately() {
+        userManager.create(new UserBuilder()
+                .setUserId("9999")
+                .setUserRole(UserRole.PLAYER)
+                .setFirstName("Existing")
+                .setMiddleName("")
+                .setLastName("Player")
+                .setEmailAddress("test2@test.com")
+                .setPhoneNumber("1111111111")
+                .setPassword(securityManager.hashPassword("password"))
+                .buildUser());
+        String csvString = CSV_COLUMNS_HEADING +
+                "A,Anne,1001,,&,B,Ben,1002,,1\n" +
+                "C,Carl,1003,,&,D,Dana,1004,,2\n" +
+                "E,Eve,1005,,&,B,Ben,1002,,3\n";
+        CsvImporter csvImporter = new CsvImporter(userManager, teamManager, securityManager);
+        String errorLog = csvImporter.insertData(csvString);
+
+        //the third player's generated email address is already taken, so only the second row can't be added
+        Assert.assertEquals(ERROR_ADDING_TEAM + 2 + "\n", errorLog);
+        assertTeams(Arrays.asList("1001", "1002", "1005", "1002"));
+    }
+
+    @Test
+    public void testDefaultPasswordHashedOncePerImport() {
+        AtomicInteger hashCount = new AtomicInteger();
+        SecurityManager countingSecurityManager = new SecurityManager(signatureAlgorithm, signatureKey) {
+            @Override
+            public Password hashPassword(String plaintext) {
+                hashCount.incrementAndGet();
+                return super.hashPassword(plaintext);
+            }
+        };
+        String csvString = CSV_COLUMNS_HEADING +
+                "A,Anne,1001,,&,B,Ben,1002,,1\n" +
+                "C,Carl,1003,,&,D,Dana,1004,,2\n";
+        CsvImporter csvImporter = new CsvImporter(userManager, teamManager, countingSecurityManager);
+
+        Assert.assertEquals("", csvImporter.insertData(csvString));
+        Assert.assertEquals(1, hashCount.get());
+
+        User anne = userManager.getById(new UserId("1001"));
+        User dana = userManager.getById(new UserId("1004"));
+        Assert.assertEquals(anne.getPassword(), dana.getPassword());
+        Assert.assertNotNull(securityManager.login(anne, DEFAULT_PASSWORD));
+
+        csvImporter.insertData(CSV_COLUMNS_HEADING);
+        Assert.assertEquals(2, hashCount.get());
+    }
+
+    private void assertTeams(List<String> playerIds) {
+        List<Team> teams = teamManager.getAll();
+        Assert.assertEquals(playerIds.size() / 2, teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            Team team = teams.get(i);
+            Assert.assertEquals(i + 1, team.getLadderPosition().getValue().intValue());
+            Assert.assertEquals(playerIds.get(2 * i), team.getFirstPlayer().getUserId().getValue());
+            Assert.assertEquals(playerIds.get(2 * i + 1), team.getSecondPlayer().getUserId().getValue());
+        }
+    }
 }
@@ -6,6 +6,8 @@ import ca.sfu.cmpt373.alpha.vrcladder.users.personal.EmailAddress;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.PhoneNumber;
 import ca.sfu.cmpt373.alpha.vrcladder.util.ConfigurationManager;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
+import com.mchange.v2.c3p0.C3P0Registry;
+import com.mchange.v2.c3p0.PooledDataSource;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.junit.After;
@@ -13,6 +15,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class SessionManagerTest {
 
     private SessionManager sessionManager;
@@ -80,11 +88,181 @@ public class SessionManagerTest {
         Assert.assertEquals(phoneNumber, newUser.getPhoneNumber());
     }
 
+    @Test
+    public void testConcurrentSessions() {
+        //every connection in the pool can be held by its own session at the same time
+        int maxPoolSize = new ConfigurationManager().getDatabasePoolMaxSize();
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < maxPoolSize; i++) {
+            Session session = sessionManager.getSession();
+            session.beginTransaction();
+            sessions.add(session);
+        }
+
+        for (Session session : sessions) {
+            Assert.assertNotNull(session.get(User.class, userFixture.getUserId()));
+            session.getTransaction().commit();
+            session.close();
+        }
+    }
+
+    @Test
+    public void testUnitOfWorkSharesSession() {
+        sessionManager.beginUnitOfWork();
+        Session firstSession = sessionManager.getSession();
+        User firstUser = firstSession.get(User.class, userFixture.getUserId());
+        firstSession.close();
+
+        Session secondSession = sessionManager.getSession();
+        User secondUser = secondSession.get(User.class, userFixture.getUserId());
+        secondSession.close();
+        sessionManager.endUnitOfWork(true);
+
+        Assert.assertSame(firstUser, secondUser);
+        Assert.assertFalse(sessionManager.isUnitOfWorkActive());
+    }
+
+    @Test
+    public void testUnitOfWorkCommit() {
+        User newUser = MockUserGenerator.generatePlayer();
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(newUser);
+        sessionManager.endUnitOfWork(true);
+
+        Session session = sessionManager.getSession();
+        User user = session.get(User.class, newUser.getUserId());
+        session.close();
+
+        Assert.assertNotNull(user);
+    }
+
+    @Test
+    public void testUnitOfWorkRollback() {
+        User newUser = MockUserGenerator.generatePlayer();
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(newUser);
+        sessionManager.endUnitOfWork(false);
+
+        Session session = sessionManager.getSession();
+        User user = session.get(User.class, newUser.getUserId());
+        session.close();
+
+        Assert.assertNull(user);
+    }
+
+    @Test
+    public void testUnitOfWorkRollbackOnly() {
+        User newUser = MockUserGenerator.generatePlayer();
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(newUser);
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        transaction.rollback();
+        session.close();
+
+        //a rollback anywhere in the unit of work undoes all of it, even when the request succeeds
+        sessionManager.endUnitOfWork(true);
+
+        session = sessionManager.getSession();
+        User user = session.get(User.class, newUser.getUserId());
+        session.close();
+
+        Assert.assertNull(user);
+    }
+
+    @Test
+    public void testAfterCompletion() {
+        List<Boolean> completions = new ArrayList<>();
+
+        //without a unit of work, changes are already committed
+        sessionManager.afterCompletion(completions::add);
+        Assert.assertEquals(Collections.singletonList(true), completions);
+
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(MockUserGenerator.generatePlayer());
+        sessionManager.afterCompletion(completions::add);
+        Assert.assertEquals(1, completions.size());
+        sessionManager.endUnitOfWork(true);
+
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(MockUserGenerator.generatePlayer());
+        sessionManager.afterCompletion(completions::add);
+        sessionManager.endUnitOfWork(false);
+
+        Assert.assertEquals(Arrays.asList(true, true, false), completions);
+    }
+
+    @Test
+    public void testRunWithoutConnection() throws Exception {
+        int idleBusyConnections = countBusyConnections();
+        sessionManager.beginUnitOfWork();
+        Session session = sessionManager.getSession();
+        session.get(User.class, userFixture.getUserId());
+        session.close();
+
+        //stands in for a login waiting on the password hashing threads
+        boolean isConnectionReleased = sessionManager.runWithoutConnection(() ->
+            //c3p0 checks connections back in on its own threads, so the count can take a moment to drop
+            awaitBusyConnectionsAtMost(idleBusyConnections));
+        Assert.assertTrue(isConnectionReleased);
+
+        //the rest of the request runs in the same unit of work, with a new connection
+        User newUser = MockUserGenerator.generatePlayer();
+        saveOrUpdateUser(newUser);
+        sessionManager.endUnitOfWork(true);
+
+        session = sessionManager.getSession();
+        Assert.assertNotNull(session.get(User.class, newUser.getUserId()));
+        session.close();
+    }
+
+    @Test
+    public void testRunWithoutConnectionAfterWrite() {
+        User firstUser = MockUserGenerator.generatePlayer();
+        User secondUser = MockUserGenerator.generatePlayer();
+
+        sessionManager.beginUnitOfWork();
+        saveOrUpdateUser(firstUser);
+        sessionManager.runWithoutConnection(() -> null);
+        saveOrUpdateUser(secondUser);
+        sessionManager.endUnitOfWork(false);
+
+        //the connection was kept, so the write made before the work is still rolled back with the rest
+        Session session = sessionManager.getSession();
+        Assert.assertNull(session.get(User.class, firstUser.getUserId()));
+        Assert.assertNull(session.get(User.class, secondUser.getUserId()));
+        session.close();
+    }
+
+    private boolean awaitBusyConnectionsAtMost(int maxBusyConnections) {
+        try {
+            for (int i = 0; i < 50; i++) {
+                if (countBusyConnections() <= maxBusyConnections) {
+                    return true;
+                }
+                Thread.sleep(100);
+            }
+            return false;
+        } catch (SQLException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int countBusyConnections() throws SQLException {
+        int busyConnections = 0;
+        for (Object dataSource : C3P0Registry.getPooledDataSources()) {
+            busyConnections += ((PooledDataSource) dataSource).getNumBusyConnectionsAllUsers();
+        }
+        return busyConnections;
+    }
+
     private User saveOrUpdateUser(User user) {
         Session session = sessionManager.getSession();
         Transaction transaction = session.beginTransaction();
         session.saveOrUpdate(user);
         transaction.commit();
+        session.close();
 
         return user;
     }
@@ -13,21 +13,30 @@ import ca.sfu.cmpt373.alpha.vrcladder.util.MockTeamGenerator;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 // TODO: Add more tests, testing the following:
 //       - Attempting to create a Team with a non-player role
 
 public class TeamManagerTest extends BaseTest {
 
+    private static final int TEAM_PAGE_SIZE = 50;
+
     private TeamManager teamManager;
     private Team teamFixture;
 
@@ -118,6 +127,73 @@ public class TeamManagerTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testConcurrentCreateTeams() throws Exception {
+        final int threadCount = 4;
+        final int teamsPerThread = 3;
+        List<List<User>> threadPlayers = new ArrayList<>();
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        for (int i = 0; i < threadCount; i++) {
+            List<User> players = new ArrayList<>();
+            for (int j = 0; j < teamsPerThread * 2; j++) {
+                User player = MockUserGenerator.generatePlayer();
+                session.save(player);
+                players.add(player);
+            }
+            threadPlayers.add(players);
+        }
+        transaction.commit();
+        session.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (List<User> players : threadPlayers) {
+            results.add(executor.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < players.size(); i += 2) {
+                    teamManager.create(players.get(i).getUserId(), players.get(i + 1).getUserId());
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        List<Team> teams = teamManager.getAll();
+        // Account for team created in setUp().
+        Assert.assertEquals(threadCount * teamsPerThread + 1, teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            Assert.assertEquals(new LadderPosition(i + 1), teams.get(i).getLadderPosition());
+        }
+    }
+
+    @Test
+    public void testCreateTeamAfterDeleteTeam() {
+        Team secondTeam = createTeam();
+        teamManager.deleteById(teamFixture.getId());
+
+        Team newTeam = createTeam();
+
+        Assert.assertEquals(new LadderPosition(1), teamManager.getById(secondTeam.getId()).getLadderPosition());
+        Assert.assertEquals(new LadderPosition(2), newTeam.getLadderPosition());
+    }
+
+    @Test
+    public void testCreateTeamInRolledBackUnitOfWork() {
+        sessionManager.beginUnitOfWork();
+        Team rolledBackTeam = createTeam();
+        sessionManager.endUnitOfWork(false);
+
+        Team newTeam = createTeam();
+
+        Assert.assertEquals(rolledBackTeam.getLadderPosition(), newTeam.getLadderPosition());
+    }
+
     @Test
     public void testGetTeam() {
         Team existingTeam = teamManager.getById(teamFixture.getId());
@@ -203,6 +279,92 @@ public class TeamManagerTest extends BaseTest {
         teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
     }
 
+    @Test
+    public void testUpdateTeamAttendanceAfterOtherTeamStopsPlaying() {
+        Team newTeam = saveTeamWithCommonPlayer();
+
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.NONE);
+        Team updatedTeam = teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
+
+        Assert.assertEquals(PlayTime.TIME_SLOT_B, updatedTeam.getAttendanceCard().getPreferredPlayTime());
+    }
+
+    @Test
+    public void testUpdateTeamAttendanceWhileOtherTeamIsUncommitted() throws Exception {
+        Team newTeam = saveTeamWithCommonPlayer();
+
+        sessionManager.beginUnitOfWork();
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+
+        //the other team's play time has only been flushed, but it still can't share a player with this one
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> otherRequest = executor.submit(() ->
+            teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B));
+        try {
+            otherRequest.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MultiplePlayTimeException);
+        } finally {
+            executor.shutdown();
+            sessionManager.endUnitOfWork(true);
+        }
+    }
+
+    @Test
+    public void testUpdateTeamAttendanceAfterOtherTeamRolledBack() {
+        Team newTeam = saveTeamWithCommonPlayer();
+
+        sessionManager.beginUnitOfWork();
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+        sessionManager.endUnitOfWork(false);
+
+        Team updatedTeam = teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
+        Assert.assertEquals(PlayTime.TIME_SLOT_B, updatedTeam.getAttendanceCard().getPreferredPlayTime());
+    }
+
+    @Test(expected = MultiplePlayTimeException.class)
+    public void testUpdateTeamAttendanceAfterResetRolledBack() {
+        Team newTeam = saveTeamWithCommonPlayer();
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+
+        sessionManager.beginUnitOfWork();
+        teamManager.resetAllAttendance();
+        sessionManager.endUnitOfWork(false);
+
+        teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
+    }
+
+    @Test
+    public void testUpdateTeamAttendanceAfterOtherTeamDeletedDirectly() {
+        Team newTeam = saveTeamWithCommonPlayer();
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        session.delete(session.get(Team.class, teamFixture.getId()));
+        transaction.commit();
+        session.close();
+
+        Team updatedTeam = teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
+        Assert.assertEquals(PlayTime.TIME_SLOT_B, updatedTeam.getAttendanceCard().getPreferredPlayTime());
+    }
+
+    @Test
+    public void testUpdateTeamAttendanceWithoutQueries() {
+        Team newTeam = createTeam();
+        teamManager.updateAttendancePlaytime(teamFixture.getId(), PlayTime.TIME_SLOT_A);
+
+        Statistics statistics = sessionManager.getStatistics();
+        statistics.clear();
+        teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_B);
+        teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.TIME_SLOT_A);
+        teamManager.updateAttendancePlaytime(newTeam.getId(), PlayTime.NONE);
+
+        Assert.assertEquals(0, statistics.getQueryExecutionCount());
+    }
+
     @Test(expected = EntityNotFoundException.class)
     public void testUpdateNonExistentTeamAttendance() {
         final GeneratedId nonExistentTeamId = new GeneratedId();
@@ -327,6 +489,261 @@ public class TeamManagerTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testUpdateSomeLadderPositions() {
+        List<Team> teams = new ArrayList<>();
+        teams.add(teamFixture);
+        int additionalTeamCount = 5;
+        for (int i = 0; i < additionalTeamCount; i++) {
+            teams.add(MockTeamGenerator.generateTeam());
+        }
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(teams.subList(1, teams.size()), session);
+        transaction.commit();
+        session.close();
+
+        //move the last team up to second, so every team after the first one moves
+        //into a position that another team holds
+        List<Team> expectedTeams = new ArrayList<>(teams);
+        expectedTeams.add(1, expectedTeams.remove(expectedTeams.size() - 1));
+        teamManager.updateLadderPositions(expectedTeams);
+        Assert.assertEquals(expectedTeams, teamManager.getAll());
+
+        //writing the same order again shouldn't change anything
+        teamManager.updateLadderPositions(expectedTeams);
+        List<Team> newRankedTeams = teamManager.getAll();
+        Assert.assertEquals(expectedTeams, newRankedTeams);
+        for (int i = 0; i < newRankedTeams.size(); i++) {
+            Assert.assertEquals(new LadderPosition(i + 1), newRankedTeams.get(i).getLadderPosition());
+        }
+    }
+
+    @Test
+    public void testUpdateLadderPositionsInUnitOfWork() {
+        int additionalTeamCount = 5;
+        List<Team> additionalTeams = new ArrayList<>();
+        for (int i = 0; i < additionalTeamCount; i++) {
+            additionalTeams.add(MockTeamGenerator.generateTeam());
+        }
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(additionalTeams, session);
+        transaction.commit();
+        session.close();
+
+        //the teams are loaded into the unit of work's session, and the ladder is written along with another change
+        sessionManager.beginUnitOfWork();
+        List<Team> expectedTeams = teamManager.getAll();
+        expectedTeams.add(1, expectedTeams.remove(expectedTeams.size() - 1));
+        teamManager.updateLadderPositions(expectedTeams);
+        teamManager.updateAttendanceStatus(teamFixture.getId(), AttendanceStatus.LATE);
+        sessionManager.endUnitOfWork(true);
+
+        List<Team> newRankedTeams = teamManager.getAll();
+        Assert.assertEquals(expectedTeams, newRankedTeams);
+        for (int i = 0; i < newRankedTeams.size(); i++) {
+            Assert.assertEquals(new LadderPosition(i + 1), newRankedTeams.get(i).getLadderPosition());
+        }
+        Assert.assertEquals(AttendanceStatus.LATE, teamManager.getById(teamFixture.getId()).getAttendanceCard().getAttendanceStatus());
+    }
+
+    @Test
+    public void testGetAllIsCached() {
+        Statistics statistics = sessionManager.getStatistics();
+        List<Team> teams = teamManager.getAll();
+        long queryCount = statistics.getQueryExecutionCount();
+        long queryCacheHitCount = statistics.getQueryCacheHitCount();
+
+        Assert.assertEquals(teams, teamManager.getAll());
+        Assert.assertEquals(queryCount, statistics.getQueryExecutionCount());
+        Assert.assertEquals(queryCacheHitCount + 1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void testGetAllInOneStatement() {
+        int additionalTeamCount = 20;
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(MockTeamGenerator.generateTeams(additionalTeamCount), session);
+        transaction.commit();
+        session.close();
+
+        Statistics statistics = sessionManager.getStatistics();
+        sessionManager.evictAllCacheRegions();
+        statistics.clear();
+        List<Team> teams = teamManager.getAll();
+        for (Team team : teams) {
+            team.getFirstPlayer().getFirstName();
+            team.getSecondPlayer().getFirstName();
+            team.getAttendanceCard().getPreferredPlayTime();
+        }
+
+        Assert.assertEquals(additionalTeamCount + 1, teams.size());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetAllSummaries() {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(MockTeamGenerator.generateTeams(3), session);
+        transaction.commit();
+        session.close();
+
+        List<Team> teams = teamManager.getAll();
+        List<TeamSummary> summaries = teamManager.getAllSummaries();
+
+        Assert.assertEquals(teams.size(), summaries.size());
+        for (int i = 0; i < teams.size(); i++) {
+            Team team = teams.get(i);
+            TeamSummary summary = summaries.get(i);
+            Assert.assertEquals(team.getId().getValue(), summary.getTeamId());
+            Assert.assertEquals(team.getLadderPosition().getValue().intValue(), summary.getLadderPosition());
+            Assert.assertEquals(team.getAttendanceCard().getPreferredPlayTime(), summary.getPlayTime());
+            Assert.assertEquals(team.getAttendanceCard().getAttendanceStatus(), summary.getAttendanceStatus());
+            Assert.assertEquals(team.getFirstPlayer().getDisplayName(), summary.getFirstPlayer().getDisplayName());
+            Assert.assertEquals(team.getSecondPlayer().getUserId().getValue(), summary.getSecondPlayer().getUserId());
+        }
+    }
+
+    @Test
+    public void testGetSummaryPages() {
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(MockTeamGenerator.generateTeams(10), session);
+        transaction.commit();
+        session.close();
+
+        int pageSize = 4;
+        List<TeamSummary> pagedSummaries = new ArrayList<>();
+        List<TeamSummary> page = teamManager.getSummaries(null, null, null, pageSize);
+        while (!page.isEmpty()) {
+            Assert.assertTrue(page.size() <= pageSize);
+            pagedSummaries.addAll(page);
+            int lastLadderPosition = page.get(page.size() - 1).getLadderPosition();
+            page = teamManager.getSummaries(null, null, lastLadderPosition, pageSize);
+        }
+
+        List<TeamSummary> summaries = teamManager.getAllSummaries();
+        Assert.assertEquals(summaries.size(), pagedSummaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            Assert.assertEquals(summaries.get(i).getTeamId(), pagedSummaries.get(i).getTeamId());
+        }
+    }
+
+    @Test
+    public void testGetFilteredSummaries() {
+        List<Team> teams = MockTeamGenerator.generateTeams(6);
+        teams.get(1).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_B);
+        teams.get(1).getAttendanceCard().setAttendanceStatus(AttendanceStatus.LATE);
+        teams.get(3).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_B);
+        teams.get(4).getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_B);
+        teams.get(4).getAttendanceCard().setAttendanceStatus(AttendanceStatus.LATE);
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(teams, session);
+        transaction.commit();
+        session.close();
+
+        List<TeamSummary> summaries = teamManager.getSummaries(PlayTime.TIME_SLOT_B, null, null, TEAM_PAGE_SIZE);
+        Assert.assertEquals(3, summaries.size());
+        Assert.assertEquals(teams.get(1).getId().getValue(), summaries.get(0).getTeamId());
+        Assert.assertEquals(teams.get(3).getId().getValue(), summaries.get(1).getTeamId());
+        Assert.assertEquals(teams.get(4).getId().getValue(), summaries.get(2).getTeamId());
+
+        summaries = teamManager.getSummaries(PlayTime.TIME_SLOT_B, AttendanceStatus.LATE,
+            summaries.get(0).getLadderPosition(), TEAM_PAGE_SIZE);
+        Assert.assertEquals(1, summaries.size());
+        Assert.assertEquals(teams.get(4).getId().getValue(), summaries.get(0).getTeamId());
+    }
+
+    @Test
+    public void testUpdateLadderPositionsEvictsCache() {
+        Team team = MockTeamGenerator.generateTeam();
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(Collections.singletonList(team), session);
+        transaction.commit();
+        session.close();
+
+        //cache the ladder and the teams in it before reordering them
+        List<Team> teams = teamManager.getAll();
+        teamManager.getById(team.getId());
+        Collections.reverse(teams);
+        teamManager.updateLadderPositions(teams);
+
+        Assert.assertEquals(teams, teamManager.getAll());
+        Assert.assertEquals(new LadderPosition(1), teamManager.getById(team.getId()).getLadderPosition());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateLadderPositionsWithDuplicateTeams() {
+        Team team = MockTeamGenerator.generateTeam();
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(Collections.singletonList(team), session);
+        transaction.commit();
+        session.close();
+
+        teamManager.updateLadderPositions(Arrays.asList(teamFixture, teamFixture));
+    }
+
+    @Test
+    public void testResetAllAttendance() {
+        Team team = MockTeamGenerator.generateTeam();
+        team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_B);
+        team.getAttendanceCard().setAttendanceStatus(AttendanceStatus.LATE);
+        teamFixture.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_A);
+        teamFixture.getAttendanceCard().setAttendanceStatus(AttendanceStatus.NO_SHOW);
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(Collections.singletonList(team), session);
+        session.update(teamFixture);
+        transaction.commit();
+        session.close();
+
+        int resetCount = teamManager.resetAllAttendance();
+
+        Assert.assertEquals(2, resetCount);
+        for (Team resetTeam : teamManager.getAll()) {
+            Assert.assertEquals(PlayTime.NONE, resetTeam.getAttendanceCard().getPreferredPlayTime());
+            Assert.assertEquals(AttendanceStatus.PRESENT, resetTeam.getAttendanceCard().getAttendanceStatus());
+        }
+    }
+
+    @Test
+    public void testUpdateLadderPositionsAndResetAttendance() {
+        Team team = MockTeamGenerator.generateTeam();
+        team.getAttendanceCard().setPreferredPlayTime(PlayTime.TIME_SLOT_B);
+        team.getAttendanceCard().setAttendanceStatus(AttendanceStatus.NO_SHOW);
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        saveTeams(Collections.singletonList(team), session);
+        transaction.commit();
+        session.close();
+
+        List<Team> teams = Arrays.asList(team, teamFixture);
+        teamManager.updateLadderPositionsAndResetAttendance(teams);
+
+        List<Team> newRankedTeams = teamManager.getAll();
+        Assert.assertEquals(teams, newRankedTeams);
+        for (Team resetTeam : newRankedTeams) {
+            Assert.assertEquals(PlayTime.NONE, resetTeam.getAttendanceCard().getPreferredPlayTime());
+            Assert.assertEquals(AttendanceStatus.PRESENT, resetTeam.getAttendanceCard().getAttendanceStatus());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateLadderPositionsWithMissingTeams() {
+        teamManager.updateLadderPositionsAndResetAttendance(Collections.emptyList());
+    }
+
     private void saveTeams(List<Team> teams, Session session) {
         for (Team team : teams) {
             session.save(team.getFirstPlayer());
@@ -334,4 +751,31 @@ public class TeamManagerTest extends BaseTest {
             session.save(team);
         }
     }
+
+    private Team createTeam() {
+        User firstPlayer = MockUserGenerator.generatePlayer();
+        User secondPlayer = MockUserGenerator.generatePlayer();
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        session.save(firstPlayer);
+        session.save(secondPlayer);
+        transaction.commit();
+        session.close();
+
+        return teamManager.create(firstPlayer, secondPlayer);
+    }
+
+    private Team saveTeamWithCommonPlayer() {
+        User newMockPlayer = MockUserGenerator.generatePlayer();
+        Team newTeam = new Team(teamFixture.getFirstPlayer(), newMockPlayer, MockTeamGenerator.generateLadderPosition());
+
+        Session session = sessionManager.getSession();
+        Transaction transaction = session.beginTransaction();
+        session.save(newMockPlayer);
+        session.save(newTeam);
+        transaction.commit();
+        session.close();
+
+        return newTeam;
+    }
 }
@@ -2,9 +2,11 @@ package ca.sfu.cmpt373.alpha.vrcladder.users;
 
 import ca.sfu.cmpt373.alpha.vrcladder.BaseTest;
 import ca.sfu.cmpt373.alpha.vrcladder.teams.Team;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.authentication.Password;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.EmailAddress;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.PhoneNumber;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockTeamGenerator;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
 import org.hibernate.Session;
@@ -14,8 +16,14 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class UserManagerTest extends BaseTest {
 
+    private static final int USER_PAGE_SIZE = 50;
+
     private UserManager userManager;
     private User userFixture;
 
@@ -97,6 +105,16 @@ public class UserManagerTest extends BaseTest {
         Assert.assertEquals(newPassword, user.getPassword());
     }
 
+    @Test
+    public void testAddAndResetAttempts() {
+        userManager.addAttempts(Collections.singletonMap(userFixture.getUserId(), 2));
+        userManager.addAttempts(Collections.singletonMap(userFixture.getUserId(), 3));
+        Assert.assertEquals(5, userManager.getById(userFixture.getUserId()).getAttempts());
+
+        userManager.resetAttempts(userFixture.getUserId());
+        Assert.assertEquals(0, userManager.getById(userFixture.getUserId()).getAttempts());
+    }
+
     @Test
     public void testDeleteUser() {
         Session session = sessionManager.getSession();
@@ -136,4 +154,75 @@ public class UserManagerTest extends BaseTest {
         Assert.assertNotNull(secondPlayer);
     }
 
+    @Test
+    public void testGetAllSummaries() {
+        User volunteer = createVolunteer();
+
+        List<UserSummary> summaries = userManager.getAllSummaries();
+
+        Assert.assertEquals(2, summaries.size());
+        for (UserSummary summary : summaries) {
+            User user = userManager.getById(new UserId(summary.getUserId()));
+            Assert.assertEquals(user.getUserRole(), summary.getUserRole());
+            Assert.assertEquals(user.getDisplayName(), summary.getDisplayName());
+            Assert.assertEquals(user.getEmailAddress().getValue(), summary.getEmailAddress());
+            Assert.assertEquals(user.getPhoneNumber().getValue(), summary.getPhoneNumber());
+        }
+        Assert.assertTrue(summaries.stream().anyMatch(summary -> summary.getUserId().equals(volunteer.getUserId().getValue())));
+    }
+
+    @Test
+    public void testGetAllPlayerSummaries() {
+        createVolunteer();
+
+        List<PlayerSummary> summaries = userManager.getAllPlayerSummaries();
+
+        Assert.assertEquals(1, summaries.size());
+        Assert.assertEquals(userFixture.getUserId().getValue(), summaries.get(0).getUserId());
+        Assert.assertEquals(userFixture.getDisplayName(), summaries.get(0).getDisplayName());
+    }
+
+    @Test
+    public void testGetSummaryPages() {
+        createVolunteer();
+        for (int i = 0; i < 4; i++) {
+            userManager.create(MockUserGenerator.generatePlayer());
+        }
+
+        int pageSize = 2;
+        List<UserSummary> pagedSummaries = new ArrayList<>();
+        List<UserSummary> page = userManager.getSummaries(null, null, pageSize);
+        while (!page.isEmpty()) {
+            Assert.assertTrue(page.size() <= pageSize);
+            pagedSummaries.addAll(page);
+            UserId lastUserId = new UserId(page.get(page.size() - 1).getUserId());
+            page = userManager.getSummaries(null, lastUserId, pageSize);
+        }
+
+        Assert.assertEquals(6, pagedSummaries.size());
+        for (int i = 1; i < pagedSummaries.size(); i++) {
+            Assert.assertTrue(pagedSummaries.get(i - 1).getUserId().compareTo(pagedSummaries.get(i).getUserId()) < 0);
+        }
+    }
+
+    @Test
+    public void testGetFilteredSummaries() {
+        User volunteer = createVolunteer();
+
+        List<UserSummary> volunteers = userManager.getSummaries(UserRole.VOLUNTEER, null, USER_PAGE_SIZE);
+        List<PlayerSummary> players = userManager.getPlayerSummaries(null, USER_PAGE_SIZE);
+
+        Assert.assertEquals(1, volunteers.size());
+        Assert.assertEquals(volunteer.getUserId().getValue(), volunteers.get(0).getUserId());
+        Assert.assertEquals(1, players.size());
+        Assert.assertEquals(userFixture.getUserId().getValue(), players.get(0).getUserId());
+        Assert.assertTrue(userManager.getPlayerSummaries(userFixture.getUserId(), USER_PAGE_SIZE).isEmpty());
+    }
+
+    private User createVolunteer() {
+        User player = MockUserGenerator.generatePlayer();
+        return userManager.create(player.getUserId(), UserRole.VOLUNTEER, player.getFirstName(), "Middle",
+            player.getLastName(), player.getEmailAddress(), player.getPhoneNumber(), player.getPassword());
+    }
+
 }
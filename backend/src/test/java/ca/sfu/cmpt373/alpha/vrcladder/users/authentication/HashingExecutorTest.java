@@ -0,0 +1,71 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.ServerBusyException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HashingExecutorTest {
+
+    private static final int THREAD_COUNT = 1;
+    private static final int QUEUE_SIZE = 10;
+
+    private HashingExecutor hashingExecutor;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        hashingExecutor = new HashingExecutor(THREAD_COUNT, QUEUE_SIZE);
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutDown();
+    }
+
+    @Test
+    public void testRun() {
+        Assert.assertEquals("hash", hashingExecutor.run(() -> "hash"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRunRethrowsTaskException() {
+        hashingExecutor.run(() -> {
+            throw new IllegalArgumentException();
+        });
+    }
+
+    @Test
+    public void testRunWhenSaturated() throws Exception {
+        HashingExecutor unqueuedExecutor = new HashingExecutor(THREAD_COUNT, 0);
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        Future<String> runningTask = callers.submit(() -> unqueuedExecutor.run(() -> {
+            workerStarted.countDown();
+            releaseWorker.await();
+            return "running";
+        }));
+        workerStarted.await();
+
+        try {
+            unqueuedExecutor.run(() -> "refused");
+            Assert.fail();
+        } catch (ServerBusyException ex) {
+            Assert.assertTrue(ex.getRetryAfterSeconds() > 0);
+        } finally {
+            releaseWorker.countDown();
+        }
+
+        Assert.assertEquals("running", runningTask.get());
+        unqueuedExecutor.shutDown();
+    }
+
+}
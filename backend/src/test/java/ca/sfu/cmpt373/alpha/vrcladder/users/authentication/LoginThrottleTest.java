@@ -0,0 +1,149 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.exceptions.TooManyAttemptsException;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LoginThrottleTest {
+
+    private static final long WINDOW = 1000;
+    private static final int USER_LIMIT = 2;
+    private static final int ADDRESS_LIMIT = 3;
+    private static final String ADDRESS = "127.0.0.1";
+    private static final String OTHER_ADDRESS = "127.0.0.2";
+
+    private long now;
+    private Map<UserId, Integer> savedFailures;
+    private LoginThrottle loginThrottle;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        savedFailures = new HashMap<>();
+        loginThrottle = new LoginThrottle(WINDOW, USER_LIMIT, ADDRESS_LIMIT, 0, () -> now,
+            failures -> failures.forEach((userId, count) -> savedFailures.merge(userId, count, Integer::sum)));
+    }
+
+    @Test
+    public void testUserLimit() {
+        UserId userId = new UserId("1");
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.acquire(userId, OTHER_ADDRESS);
+
+        try {
+            loginThrottle.acquire(userId, ADDRESS);
+            Assert.fail();
+        } catch (TooManyAttemptsException ex) {
+            Assert.assertEquals(1, ex.getRetryAfterSeconds());
+        }
+
+        loginThrottle.acquire(new UserId("2"), ADDRESS);
+    }
+
+    @Test
+    public void testAddressLimit() {
+        loginThrottle.acquire(new UserId("1"), ADDRESS);
+        loginThrottle.acquire(new UserId("2"), ADDRESS);
+        loginThrottle.acquire(new UserId("3"), ADDRESS);
+
+        UserId userId = new UserId("4");
+        try {
+            loginThrottle.acquire(userId, ADDRESS);
+            Assert.fail();
+        } catch (TooManyAttemptsException ex) {
+            //the refused attempt isn't counted against the user
+        }
+
+        loginThrottle.acquire(userId, OTHER_ADDRESS);
+        loginThrottle.acquire(userId, OTHER_ADDRESS);
+    }
+
+    @Test
+    public void testWindowSlides() {
+        UserId userId = new UserId("1");
+        loginThrottle.acquire(userId, ADDRESS);
+        now = WINDOW / 2;
+        loginThrottle.acquire(userId, ADDRESS);
+
+        now = WINDOW;
+        loginThrottle.acquire(userId, ADDRESS);
+        try {
+            loginThrottle.acquire(userId, ADDRESS);
+            Assert.fail();
+        } catch (TooManyAttemptsException ex) {
+            //the attempt at WINDOW / 2 is still within the window
+        }
+    }
+
+    @Test
+    public void testSuccessForgivesAttempts() {
+        UserId userId = new UserId("1");
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.recordFailure(userId);
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.recordSuccess(userId, ADDRESS);
+
+        Assert.assertEquals(0, loginThrottle.getUnsavedFailures(userId));
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.acquire(userId, ADDRESS);
+    }
+
+    @Test
+    public void testReleaseAttempt() {
+        UserId userId = new UserId("1");
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.acquire(new UserId("2"), ADDRESS);
+        loginThrottle.acquire(userId, ADDRESS);
+        loginThrottle.release(userId, ADDRESS);
+
+        //the released attempt no longer counts against the user or the address
+        loginThrottle.acquire(userId, ADDRESS);
+        try {
+            loginThrottle.acquire(new UserId("3"), ADDRESS);
+            Assert.fail();
+        } catch (TooManyAttemptsException ex) {
+            //the address has reached its limit again
+        }
+    }
+
+    @Test
+    public void testFlushFailures() {
+        UserId userId = new UserId("1");
+        UserId otherUserId = new UserId("2");
+        loginThrottle.recordFailure(userId);
+        loginThrottle.recordFailure(userId);
+        loginThrottle.recordFailure(otherUserId);
+        Assert.assertEquals(2, loginThrottle.getUnsavedFailures(userId));
+
+        loginThrottle.flush();
+        Assert.assertEquals(Integer.valueOf(2), savedFailures.get(userId));
+        Assert.assertEquals(Integer.valueOf(1), savedFailures.get(otherUserId));
+        Assert.assertEquals(0, loginThrottle.getUnsavedFailures(userId));
+
+        loginThrottle.flush();
+        Assert.assertEquals(Integer.valueOf(2), savedFailures.get(userId));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        UserId userId = new UserId("1");
+        LoginThrottle failingThrottle = new LoginThrottle(WINDOW, USER_LIMIT, ADDRESS_LIMIT, 0, () -> now,
+            failures -> {
+                throw new IllegalStateException();
+            });
+        failingThrottle.recordFailure(userId);
+
+        try {
+            failingThrottle.flush();
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals(1, failingThrottle.getUnsavedFailures(userId));
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.BaseTest;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class RevokedTokenManagerTest extends BaseTest {
+
+    private static final UserId USER_ID = new UserId("1");
+
+    private RevokedTokenManager revokedTokenManager;
+
+    @Before
+    public void setUp() {
+        revokedTokenManager = new RevokedTokenManager(sessionManager);
+    }
+
+    @Test
+    public void testGetAllUnexpired() {
+        long now = System.currentTimeMillis();
+        RefreshToken unexpiredToken = new RefreshToken("unexpired", USER_ID, 0, 0, now + TimeUnit.DAYS.toMillis(1));
+        RefreshToken expiredToken = new RefreshToken("expired", USER_ID, 0, 0, now - TimeUnit.DAYS.toMillis(1));
+        revokedTokenManager.create(unexpiredToken);
+        revokedTokenManager.create(expiredToken);
+
+        List<RevokedToken> revokedTokens = revokedTokenManager.getAllUnexpired();
+        Assert.assertEquals(1, revokedTokens.size());
+        Assert.assertEquals(unexpiredToken.getTokenId(), revokedTokens.get(0).getTokenId());
+        Assert.assertEquals(unexpiredToken.getExpirationTime(), revokedTokens.get(0).getExpirationTime());
+    }
+
+    @Test
+    public void testDeleteExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokenManager.create(new RefreshToken("unexpired", USER_ID, 0, 0, now + TimeUnit.DAYS.toMillis(1)));
+        revokedTokenManager.create(new RefreshToken("expired", USER_ID, 0, 0, now - TimeUnit.DAYS.toMillis(1)));
+
+        Assert.assertEquals(1, revokedTokenManager.deleteExpired());
+        Assert.assertEquals(0, revokedTokenManager.deleteExpired());
+        Assert.assertEquals(1, revokedTokenManager.getAll().size());
+    }
+
+}
@@ -1,6 +1,7 @@
 package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
 
 import ca.sfu.cmpt373.alpha.vrcladder.users.User;
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
 import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
 import ca.sfu.cmpt373.alpha.vrcladder.util.MockUserGenerator;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -12,6 +13,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.security.Key;
+import java.util.Arrays;
+import java.util.Base64;
 
 public class SecurityManagerTest {
 
@@ -50,6 +53,19 @@ public class SecurityManagerTest {
         Assert.assertNotEquals(firstPassword, secondPassword);
     }
 
+    @Test
+    public void testHashPasswordWithConfiguredIterations() {
+        final int hashIterations = 1000;
+        SecurityManager cheapSecurityManager = new SecurityManager(SIGNATURE_ALGORITHM, SIGNATURE_KEY, hashIterations, 1, 1);
+        Password password = cheapSecurityManager.hashPassword(TEST_PASSWORD);
+        cheapSecurityManager.shutDown();
+
+        Assert.assertTrue(password.getHash().contains("$" + hashIterations + "$"));
+        // Passwords keep being checked with the iterations they were hashed with.
+        userFixture.setPassword(password);
+        Assert.assertNotNull(securityManager.login(userFixture, TEST_PASSWORD));
+    }
+
     @Test
     public void testLoginSuccessful() {
         String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
@@ -72,6 +88,192 @@ public class SecurityManagerTest {
         Assert.assertEquals(userFixture.getUserId(), userId);
     }
 
+    @Test
+    public void testValidTokenTwice() {
+        String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+
+        Assert.assertEquals(userFixture.getUserId(), securityManager.parseToken(authorizationToken));
+        Assert.assertEquals(userFixture.getUserId(), securityManager.parseToken(authorizationToken));
+    }
+
+    @Test
+    public void testTokenPrincipal() {
+        User volunteer = MockUserGenerator.generatePlayer();
+        volunteer.setPassword(securityManager.hashPassword(TEST_PASSWORD));
+        // Changing the role of an existing user changes their token version.
+        volunteer.setUserRole(UserRole.VOLUNTEER);
+        String authorizationToken = securityManager.login(volunteer, TEST_PASSWORD);
+
+        UserPrincipal principal = securityManager.parsePrincipal(authorizationToken);
+        Assert.assertEquals(volunteer.getUserId(), principal.getUserId());
+        Assert.assertEquals(UserRole.VOLUNTEER, principal.getUserRole());
+        Assert.assertEquals(1, principal.getTokenVersion());
+    }
+
+    @Test
+    public void testRefreshToken() {
+        String refreshToken = securityManager.createRefreshToken(userFixture);
+
+        RefreshToken parsedToken = securityManager.parseRefreshToken(refreshToken);
+        Assert.assertEquals(userFixture.getUserId(), parsedToken.getUserId());
+
+        String authorizationToken = securityManager.refreshAuthorizationToken(parsedToken, userFixture);
+        Assert.assertEquals(userFixture.getUserId(), securityManager.parseToken(authorizationToken));
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void testRefreshTokenUsedTwice() {
+        RefreshToken refreshToken = securityManager.parseRefreshToken(securityManager.createRefreshToken(userFixture));
+        securityManager.refreshAuthorizationToken(refreshToken, userFixture);
+
+        securityManager.refreshAuthorizationToken(refreshToken, userFixture);
+    }
+
+    @Test
+    public void testRestoreRefreshToken() {
+        String refreshToken = securityManager.createRefreshToken(userFixture);
+        RefreshToken parsedToken = securityManager.parseRefreshToken(refreshToken);
+        securityManager.refreshAuthorizationToken(parsedToken, userFixture);
+
+        // A token whose use was rolled back can be used again.
+        securityManager.restoreRefreshToken(parsedToken);
+        parsedToken = securityManager.parseRefreshToken(refreshToken);
+        Assert.assertNotNull(securityManager.refreshAuthorizationToken(parsedToken, userFixture));
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void testRevokedRefreshToken() {
+        String refreshToken = securityManager.createRefreshToken(userFixture);
+        securityManager.revokeRefreshToken(securityManager.parseRefreshToken(refreshToken));
+
+        securityManager.parseRefreshToken(refreshToken);
+    }
+
+    @Test
+    public void testCheckTokenVersion() {
+        String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+        UserPrincipal principal = securityManager.parsePrincipal(authorizationToken);
+        securityManager.checkTokenVersion(principal, userFixture);
+
+        userFixture.setUserRole(UserRole.VOLUNTEER);
+        try {
+            securityManager.checkTokenVersion(principal, userFixture);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // The token was issued before the role changed.
+        }
+
+        try {
+            securityManager.parsePrincipal(authorizationToken);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // Tokens issued before the change are revoked for every route, including ones that were already verified.
+        }
+    }
+
+    @Test
+    public void testRevokeAllTokens() {
+        String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+        String refreshToken = securityManager.createRefreshToken(userFixture);
+        securityManager.parsePrincipal(authorizationToken);
+
+        securityManager.revokeAllTokens(userFixture.getUserId());
+        try {
+            securityManager.parsePrincipal(authorizationToken);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // expected
+        }
+
+        try {
+            securityManager.parseRefreshToken(refreshToken);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRestoreRevokedTokens() {
+        String usedToken = securityManager.createRefreshToken(userFixture);
+        RefreshToken parsedUsedToken = securityManager.parseRefreshToken(usedToken);
+        securityManager.refreshAuthorizationToken(parsedUsedToken, userFixture);
+        String revokedToken = securityManager.createRefreshToken(userFixture);
+        RefreshToken parsedRevokedToken = securityManager.parseRefreshToken(revokedToken);
+        securityManager.revokeRefreshToken(parsedRevokedToken);
+        Assert.assertFalse(securityManager.revokeRefreshToken(parsedRevokedToken));
+
+        // The tokens saved as revoked are refused by a SecurityManager created after a restart.
+        SecurityManager restartedSecurityManager = new SecurityManager(SIGNATURE_ALGORITHM, SIGNATURE_KEY);
+        restartedSecurityManager.restoreRevokedTokens(
+            Arrays.asList(new RevokedToken(parsedUsedToken), new RevokedToken(parsedRevokedToken)));
+        for (String refreshToken : Arrays.asList(usedToken, revokedToken)) {
+            try {
+                restartedSecurityManager.parseRefreshToken(refreshToken);
+                Assert.fail();
+            } catch (AuthorizationException ex) {
+                // expected
+            }
+        }
+
+        String otherToken = securityManager.createRefreshToken(userFixture);
+        Assert.assertNotNull(restartedSecurityManager.parseRefreshToken(otherToken));
+        restartedSecurityManager.shutDown();
+    }
+
+    @Test
+    public void testRefreshAfterTokenVersionChange() {
+        String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+        RefreshToken refreshToken = securityManager.parseRefreshToken(securityManager.createRefreshToken(userFixture));
+        securityManager.parseToken(authorizationToken);
+
+        userFixture.setUserRole(UserRole.VOLUNTEER);
+        try {
+            securityManager.refreshAuthorizationToken(refreshToken, userFixture);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // Tokens issued before the change are revoked, including ones that were already verified.
+        }
+
+        try {
+            securityManager.parseToken(authorizationToken);
+            Assert.fail();
+        } catch (AuthorizationException ex) {
+            // expected
+        }
+
+        String newAuthorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+        Assert.assertEquals(UserRole.VOLUNTEER, securityManager.parsePrincipal(newAuthorizationToken).getUserRole());
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void testRefreshTokenIsNotAuthorizationToken() {
+        securityManager.parseToken(securityManager.createRefreshToken(userFixture));
+    }
+
+    @Test(expected = AuthorizationException.class)
+    public void testAuthorizationTokenIsNotRefreshToken() {
+        securityManager.parseRefreshToken(securityManager.login(userFixture, TEST_PASSWORD));
+    }
+
+    @Test
+    public void testConfiguredSignatureKey() {
+        String encodedKey = Base64.getEncoder().encodeToString(SIGNATURE_KEY.getEncoded());
+        Key signatureKey = SecurityManager.createSignatureKey(SIGNATURE_ALGORITHM, encodedKey, false);
+        Assert.assertNotNull(SecurityManager.createSignatureKey(SIGNATURE_ALGORITHM, "", true));
+
+        // Tokens stay valid when the application is restarted with the same key.
+        SecurityManager restartedSecurityManager = new SecurityManager(SIGNATURE_ALGORITHM, signatureKey);
+        String authorizationToken = securityManager.login(userFixture, TEST_PASSWORD);
+        Assert.assertEquals(userFixture.getUserId(), restartedSecurityManager.parseToken(authorizationToken));
+        restartedSecurityManager.shutDown();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingSignatureKey() {
+        SecurityManager.createSignatureKey(SIGNATURE_ALGORITHM, "", false);
+    }
+
     @Test(expected = AuthorizationException.class)
     public void testInvalidToken() {
         securityManager.parseToken(TEST_INVALID_TOKEN);
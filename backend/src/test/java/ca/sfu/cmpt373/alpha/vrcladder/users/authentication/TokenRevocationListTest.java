@@ -0,0 +1,68 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TokenRevocationListTest {
+
+    private static final long EXPIRATION_TIME = 1000;
+
+    private long now;
+    private TokenRevocationList tokenRevocationList;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        tokenRevocationList = new TokenRevocationList(() -> now);
+    }
+
+    @Test
+    public void testRevokeRefreshToken() {
+        RefreshToken refreshToken = new RefreshToken("1", new UserId("1"), 0, 0, EXPIRATION_TIME);
+        RefreshToken otherRefreshToken = new RefreshToken("2", new UserId("1"), 0, 0, EXPIRATION_TIME);
+
+        Assert.assertTrue(tokenRevocationList.revoke(refreshToken));
+        Assert.assertFalse(tokenRevocationList.revoke(refreshToken));
+        Assert.assertTrue(tokenRevocationList.isRevoked(refreshToken));
+        Assert.assertFalse(tokenRevocationList.isRevoked(otherRefreshToken));
+    }
+
+    @Test
+    public void testRevokeBefore() {
+        UserId userId = new UserId("1");
+        tokenRevocationList.revokeBefore(userId, 2);
+        tokenRevocationList.revokeBefore(userId, 1);
+
+        Assert.assertTrue(tokenRevocationList.isRevoked(new UserPrincipal(userId, UserRole.PLAYER, 1, 0)));
+        Assert.assertFalse(tokenRevocationList.isRevoked(new UserPrincipal(userId, UserRole.PLAYER, 2, 0)));
+        Assert.assertTrue(tokenRevocationList.isRevoked(new RefreshToken("1", userId, 1, 0, EXPIRATION_TIME)));
+        Assert.assertFalse(tokenRevocationList.isRevoked(new UserPrincipal(new UserId("2"), UserRole.PLAYER, 0, 0)));
+    }
+
+    @Test
+    public void testRevokeIssuedBefore() {
+        UserId userId = new UserId("1");
+        tokenRevocationList.revokeIssuedBefore(userId, 2000);
+
+        Assert.assertTrue(tokenRevocationList.isRevoked(new UserPrincipal(userId, UserRole.PLAYER, 0, 2000)));
+        Assert.assertTrue(tokenRevocationList.isRevoked(new RefreshToken("1", userId, 0, 1000, EXPIRATION_TIME)));
+        Assert.assertFalse(tokenRevocationList.isRevoked(new UserPrincipal(userId, UserRole.PLAYER, 0, 3000)));
+        Assert.assertFalse(tokenRevocationList.isRevoked(new UserPrincipal(new UserId("2"), UserRole.PLAYER, 0, 0)));
+    }
+
+    @Test
+    public void testExpiredTokensArePruned() {
+        final int revokedCount = 1000;
+        for (int i = 0; i < revokedCount - 1; i++) {
+            tokenRevocationList.revoke(new RefreshToken(Integer.toString(i), new UserId("1"), 0, 0, EXPIRATION_TIME));
+        }
+
+        now = EXPIRATION_TIME;
+        tokenRevocationList.revoke(new RefreshToken("last", new UserId("1"), 0, 0, EXPIRATION_TIME * 2));
+        Assert.assertEquals(1, tokenRevocationList.size());
+    }
+
+}
@@ -0,0 +1,69 @@
+package ca.sfu.cmpt373.alpha.vrcladder.users.authentication;
+
+import ca.sfu.cmpt373.alpha.vrcladder.users.authorization.UserRole;
+import ca.sfu.cmpt373.alpha.vrcladder.users.personal.UserId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VerifiedTokenCacheTest {
+
+    private static final int MAX_SIZE = 2;
+    private static final long EXPIRATION_TIME = 1000;
+
+    private long now;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        verifiedTokenCache = new VerifiedTokenCache(MAX_SIZE, () -> now);
+    }
+
+    @Test
+    public void testGetVerifiedToken() {
+        UserPrincipal principal = createPrincipal("1");
+        verifiedTokenCache.put("token", principal, EXPIRATION_TIME);
+
+        Assert.assertEquals(principal, verifiedTokenCache.get("token"));
+        Assert.assertNull(verifiedTokenCache.get("otherToken"));
+    }
+
+    @Test
+    public void testExpiredTokenIsDropped() {
+        verifiedTokenCache.put("token", createPrincipal("1"), EXPIRATION_TIME);
+
+        now = EXPIRATION_TIME;
+        Assert.assertNull(verifiedTokenCache.get("token"));
+        Assert.assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    public void testFullCacheDropsExpiredTokensFirst() {
+        UserPrincipal principal = createPrincipal("2");
+        verifiedTokenCache.put("expiringToken", createPrincipal("1"), EXPIRATION_TIME);
+        verifiedTokenCache.put("token", principal, EXPIRATION_TIME * 2);
+
+        now = EXPIRATION_TIME;
+        UserPrincipal newPrincipal = createPrincipal("3");
+        verifiedTokenCache.put("newToken", newPrincipal, EXPIRATION_TIME * 2);
+
+        Assert.assertEquals(MAX_SIZE, verifiedTokenCache.size());
+        Assert.assertEquals(principal, verifiedTokenCache.get("token"));
+        Assert.assertEquals(newPrincipal, verifiedTokenCache.get("newToken"));
+    }
+
+    @Test
+    public void testFullCacheStaysBounded() {
+        for (int i = 0; i < MAX_SIZE * 3; i++) {
+            verifiedTokenCache.put("token" + i, createPrincipal(Integer.toString(i)), EXPIRATION_TIME);
+        }
+
+        Assert.assertEquals(MAX_SIZE, verifiedTokenCache.size());
+    }
+
+    private static UserPrincipal createPrincipal(String userId) {
+        return new UserPrincipal(new UserId(userId), UserRole.PLAYER, 0, 0);
+    }
+
+}
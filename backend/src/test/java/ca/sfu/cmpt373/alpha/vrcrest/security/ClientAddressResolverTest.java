@@ -0,0 +1,44 @@
+package ca.sfu.cmpt373.alpha.vrcrest.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientAddressResolverTest {
+
+    private static final String CLIENT_ADDRESS = "203.0.113.7";
+    private static final String PROXY_ADDRESS = "172.31.4.20";
+
+    @Test
+    public void testUntrustedProxy() {
+        ClientAddressResolver resolver = new ClientAddressResolver("");
+        Assert.assertEquals(PROXY_ADDRESS, resolver.getClientAddress(PROXY_ADDRESS, CLIENT_ADDRESS));
+        Assert.assertEquals(PROXY_ADDRESS, resolver.getClientAddress(PROXY_ADDRESS, null));
+    }
+
+    @Test
+    public void testTrustedProxy() {
+        ClientAddressResolver resolver = new ClientAddressResolver("10.0.0.0/8, 172.16.0.0/12");
+        Assert.assertEquals(CLIENT_ADDRESS, resolver.getClientAddress(PROXY_ADDRESS, CLIENT_ADDRESS));
+        Assert.assertEquals(PROXY_ADDRESS, resolver.getClientAddress(PROXY_ADDRESS, null));
+
+        // A client can put anything at the start of the header, so only the address added by the proxy is used.
+        Assert.assertEquals(CLIENT_ADDRESS,
+            resolver.getClientAddress(PROXY_ADDRESS, "198.51.100.1, " + CLIENT_ADDRESS));
+        // Proxies in front of the trusted one are skipped if they are trusted as well.
+        Assert.assertEquals(CLIENT_ADDRESS,
+            resolver.getClientAddress(PROXY_ADDRESS, CLIENT_ADDRESS + ", 10.1.2.3"));
+    }
+
+    @Test
+    public void testHeaderOnlyTrustedFromProxy() {
+        ClientAddressResolver resolver = new ClientAddressResolver("172.31.4.20");
+        Assert.assertEquals(CLIENT_ADDRESS, resolver.getClientAddress(PROXY_ADDRESS, CLIENT_ADDRESS));
+        Assert.assertEquals("172.31.4.21", resolver.getClientAddress("172.31.4.21", CLIENT_ADDRESS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTrustedProxy() {
+        new ClientAddressResolver("load-balancer.example.com");
+    }
+
+}